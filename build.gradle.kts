@@ -30,6 +30,35 @@ dependencies {
     compileOnly(files("lib/AuroraQuests-2.2.0.jar"))
     compileOnly(files("lib/Aurora-2.5.1.jar"))
     compileOnly("io.papermc.paper:paper-api:1.21.4-R0.1-SNAPSHOT")
+
+    testImplementation(platform("org.junit:junit-bom:5.11.4"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+// JMH benchmarks for the consume path. The jmh source set carries its own stub versions of the
+// AuroraQuests classes the addon reflects into, so the real plugin jars are not on its classpath.
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+dependencies {
+    "jmhImplementation"("io.papermc.paper:paper-api:1.21.4-R0.1-SNAPSHOT")
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH benchmarks with the GC profiler, e.g. -Pjmh.includes=ConsumePathBenchmark"
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    args(project.findProperty("jmh.includes")?.toString() ?: ".*Benchmark.*", "-prof", "gc")
 }
 
 tasks.jar {
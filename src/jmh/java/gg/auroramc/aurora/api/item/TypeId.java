@@ -0,0 +1,27 @@
+package gg.auroramc.aurora.api.item;
+
+import java.util.Locale;
+
+/**
+ * Benchmark stand-in for Aurora's {@code TypeId}; parses exactly like the real record.
+ */
+public record TypeId(String namespace, String id) {
+
+    public static TypeId fromString(String value) {
+        String lower = value.toLowerCase(Locale.ROOT);
+        int colon = lower.indexOf(':');
+        if (colon < 0) {
+            return new TypeId("minecraft", lower);
+        }
+        return new TypeId(lower.substring(0, colon), lower.substring(colon + 1));
+    }
+
+    public static TypeId fromDefault(String value) {
+        return new TypeId("minecraft", value.toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    public String toString() {
+        return namespace + ":" + id;
+    }
+}
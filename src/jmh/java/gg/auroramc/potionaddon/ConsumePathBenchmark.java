@@ -0,0 +1,151 @@
+package gg.auroramc.potionaddon;
+
+import gg.auroramc.aurora.api.item.TypeId;
+import gg.auroramc.potionaddon.metrics.AddonMetrics;
+import gg.auroramc.potionaddon.quests.ConsumeBatcher;
+import gg.auroramc.potionaddon.quests.ConsumeObjectiveIndex;
+import gg.auroramc.potionaddon.quests.QuestBindings;
+import gg.auroramc.quests.api.AuroraQuestsPlugin;
+import gg.auroramc.quests.api.objective.Objective;
+import gg.auroramc.quests.api.objective.ObjectiveDefinition;
+import gg.auroramc.quests.api.objective.filter.ObjectiveFilter;
+import gg.auroramc.quests.api.objective.filter.TypeFilter;
+import gg.auroramc.quests.api.profile.Profile;
+import gg.auroramc.quests.api.profile.ProfileManager;
+import gg.auroramc.quests.api.quest.Quest;
+import gg.auroramc.quests.api.questpool.QuestPool;
+import gg.auroramc.quests.objective.ConsumeObjective;
+import org.bukkit.configuration.MemoryConfiguration;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Throughput of {@link PotionConsumeListener#progressConsumeObjectives} against synthetic
+ * AuroraQuests profiles of {@code pools × quests × objectives}.
+ *
+ * <p>The AuroraQuests classes on the benchmark classpath are the stubs under {@code src/jmh}, so the
+ * numbers cover the addon's own work: the index lookup, meta reuse and the bound method handles.
+ * Run with {@code ./gradlew jmh}, which also enables the GC profiler to report bytes allocated per
+ * drink.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsumePathBenchmark {
+    private static final String[] POTIONS = {
+            "strength", "strong_strength", "long_strength", "swiftness", "invisibility", "night_vision"
+    };
+
+    @Param({"1", "4"})
+    public int pools;
+
+    @Param({"2", "10"})
+    public int quests;
+
+    @Param({"1", "5"})
+    public int objectives;
+
+    private PotionConsumeListener listener;
+    private ConsumeObjectiveIndex index;
+    private Player player;
+    private Object[] typeIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        UUID playerId = UUID.randomUUID();
+        ProfileManager profileManager = new ProfileManager();
+        profileManager.addProfile(playerId, buildProfile());
+        new AuroraQuestsPlugin(profileManager);
+
+        QuestBindings bindings = QuestBindings.bind();
+        AddonMetrics metrics = new AddonMetrics();
+        index = new ConsumeObjectiveIndex(bindings);
+        ConsumeBatcher batcher = new ConsumeBatcher(null, bindings, metrics, null);
+        listener = new PotionConsumeListener(bindings, null, index, batcher, metrics,
+                Logger.getLogger("ConsumePathBenchmark"), null);
+        player = fakePlayer(playerId);
+
+        typeIds = new Object[POTIONS.length];
+        for (int i = 0; i < POTIONS.length; i++) {
+            typeIds[i] = bindings.typeId("minecraft", POTIONS[i]);
+        }
+    }
+
+    /**
+     * A drink against a warm index, the steady state on a live server.
+     */
+    @Benchmark
+    public int progressConsumeObjectives() {
+        Object typeId = typeIds[next++ % typeIds.length];
+        return listener.progressConsumeObjectives(player, typeId);
+    }
+
+    /**
+     * The first drink after the index was invalidated, e.g. after a quest completed.
+     */
+    @Benchmark
+    public int progressConsumeObjectivesColdIndex() {
+        index.invalidate(player.getUniqueId());
+        Object typeId = typeIds[next++ % typeIds.length];
+        return listener.progressConsumeObjectives(player, typeId);
+    }
+
+    private Profile buildProfile() {
+        List<QuestPool> questPools = new ArrayList<>(pools);
+        int counter = 0;
+        for (int p = 0; p < pools; p++) {
+            List<Quest> poolQuests = new ArrayList<>(quests);
+            for (int q = 0; q < quests; q++) {
+                List<Objective> questObjectives = new ArrayList<>(objectives);
+                for (int o = 0; o < objectives; o++) {
+                    questObjectives.add(consumeObjective(POTIONS[counter++ % POTIONS.length]));
+                }
+                poolQuests.add(new Quest(questObjectives));
+            }
+            questPools.add(new QuestPool(poolQuests));
+        }
+        return new Profile(questPools);
+    }
+
+    private static Objective consumeObjective(String potion) {
+        MemoryConfiguration args = new MemoryConfiguration();
+        args.set("types", List.of(potion));
+        List<ObjectiveFilter> filters = List.of(new TypeFilter(Set.of(TypeId.fromString(potion)),
+                TypeFilter.Mode.WHITELIST));
+        return new ConsumeObjective(new ObjectiveDefinition(args), filters);
+    }
+
+    private static Player fakePlayer(UUID playerId) {
+        return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getUniqueId" -> playerId;
+                    case "hashCode" -> playerId.hashCode();
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "BenchmarkPlayer";
+                    default -> null;
+                });
+    }
+}
@@ -0,0 +1,24 @@
+package gg.auroramc.quests.api;
+
+import gg.auroramc.quests.api.profile.ProfileManager;
+
+/**
+ * Benchmark stand-in for the AuroraQuests plugin singleton.
+ */
+public class AuroraQuestsPlugin {
+    protected static AuroraQuestsPlugin instance;
+    protected final ProfileManager profileManager;
+
+    public AuroraQuestsPlugin(ProfileManager profileManager) {
+        this.profileManager = profileManager;
+        instance = this;
+    }
+
+    public static AuroraQuestsPlugin inst() {
+        return instance;
+    }
+
+    public ProfileManager getProfileManager() {
+        return profileManager;
+    }
+}
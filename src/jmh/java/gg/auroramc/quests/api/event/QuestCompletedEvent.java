@@ -0,0 +1,27 @@
+package gg.auroramc.quests.api.event;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+public class QuestCompletedEvent extends Event {
+    private static final HandlerList HANDLERS = new HandlerList();
+    private final Player player;
+
+    public QuestCompletedEvent(Player player) {
+        this.player = player;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+}
@@ -0,0 +1,20 @@
+package gg.auroramc.quests.api.event;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+public class QuestsLoadedEvent extends Event {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    public QuestsLoadedEvent() {
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+}
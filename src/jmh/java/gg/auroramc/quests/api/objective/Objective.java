@@ -0,0 +1,51 @@
+package gg.auroramc.quests.api.objective;
+
+import gg.auroramc.quests.api.objective.filter.ObjectiveFilter;
+
+import java.util.List;
+
+/**
+ * Benchmark stand-in for AuroraQuests' {@code Objective}. {@link #progress} runs the filters and
+ * adds to an in-memory counter, which is the part of the real method the addon cannot avoid.
+ */
+public abstract class Objective {
+    protected final ObjectiveDefinition definition;
+    protected final List<ObjectiveFilter> filters;
+    private double progress;
+
+    protected Objective(ObjectiveDefinition definition, List<ObjectiveFilter> filters) {
+        this.definition = definition;
+        this.filters = filters;
+    }
+
+    protected boolean passesFilters(ObjectiveMeta meta) {
+        for (ObjectiveFilter filter : filters) {
+            if (!filter.filter(meta)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void progress(double amount, ObjectiveMeta meta) {
+        if (passesFilters(meta)) {
+            progress += amount;
+        }
+    }
+
+    public boolean isStarted() {
+        return true;
+    }
+
+    public List<ObjectiveFilter> getFilters() {
+        return filters;
+    }
+
+    public ObjectiveDefinition getDefinition() {
+        return definition;
+    }
+
+    public double getProgress() {
+        return progress;
+    }
+}
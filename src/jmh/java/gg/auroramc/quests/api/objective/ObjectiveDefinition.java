@@ -0,0 +1,15 @@
+package gg.auroramc.quests.api.objective;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+public class ObjectiveDefinition {
+    private final ConfigurationSection args;
+
+    public ObjectiveDefinition(ConfigurationSection args) {
+        this.args = args;
+    }
+
+    public ConfigurationSection getArgs() {
+        return args;
+    }
+}
@@ -0,0 +1,39 @@
+package gg.auroramc.quests.api.objective;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+public class ObjectiveMeta {
+    private final Player player;
+    private final Location location;
+    private Map<String, Object> variables;
+
+    public ObjectiveMeta(Player player, Location location) {
+        this.player = player;
+        this.location = location;
+    }
+
+    public <T> void setVariable(String key, T value) {
+        if (variables == null) {
+            variables = new HashMap<>();
+        }
+        variables.put(key, value);
+    }
+
+    public <T> Optional<T> getVariable(String key, Class<T> type) {
+        Object value = variables != null ? variables.get(key) : null;
+        return type.isInstance(value) ? Optional.of(type.cast(value)) : Optional.empty();
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public Location getLocation() {
+        return location;
+    }
+}
@@ -0,0 +1,19 @@
+package gg.auroramc.quests.api.objective;
+
+import gg.auroramc.aurora.api.item.TypeId;
+import gg.auroramc.quests.api.objective.filter.ObjectiveFilter;
+
+import java.util.List;
+
+public abstract class TypedObjective extends Objective {
+
+    protected TypedObjective(ObjectiveDefinition definition, List<ObjectiveFilter> filters) {
+        super(definition, filters);
+    }
+
+    protected ObjectiveMeta meta(TypeId typeId) {
+        ObjectiveMeta meta = new ObjectiveMeta(null, null);
+        meta.setVariable("type", typeId);
+        return meta;
+    }
+}
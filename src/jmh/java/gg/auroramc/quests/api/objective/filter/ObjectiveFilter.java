@@ -0,0 +1,7 @@
+package gg.auroramc.quests.api.objective.filter;
+
+import gg.auroramc.quests.api.objective.ObjectiveMeta;
+
+public interface ObjectiveFilter {
+    boolean filter(ObjectiveMeta meta);
+}
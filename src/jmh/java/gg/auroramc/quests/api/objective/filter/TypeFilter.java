@@ -0,0 +1,30 @@
+package gg.auroramc.quests.api.objective.filter;
+
+import gg.auroramc.aurora.api.item.TypeId;
+import gg.auroramc.quests.api.objective.ObjectiveMeta;
+
+import java.util.Set;
+
+public class TypeFilter implements ObjectiveFilter {
+    private final Set<TypeId> types;
+    private final Mode mode;
+
+    public TypeFilter(Set<TypeId> types, Mode mode) {
+        this.types = types;
+        this.mode = mode;
+    }
+
+    @Override
+    public boolean filter(ObjectiveMeta meta) {
+        if (types.isEmpty()) {
+            return true;
+        }
+        boolean listed = meta.getVariable("type", TypeId.class).map(types::contains).orElse(false);
+        return mode == Mode.WHITELIST ? listed : !listed;
+    }
+
+    public enum Mode {
+        WHITELIST,
+        BLACKLIST
+    }
+}
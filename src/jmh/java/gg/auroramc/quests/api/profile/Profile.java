@@ -0,0 +1,18 @@
+package gg.auroramc.quests.api.profile;
+
+import gg.auroramc.quests.api.questpool.QuestPool;
+
+import java.util.Collection;
+import java.util.List;
+
+public class Profile {
+    private final List<QuestPool> pools;
+
+    public Profile(List<QuestPool> pools) {
+        this.pools = pools;
+    }
+
+    public Collection<QuestPool> getQuestPools() {
+        return pools;
+    }
+}
@@ -0,0 +1,19 @@
+package gg.auroramc.quests.api.profile;
+
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ProfileManager {
+    private final Map<UUID, Profile> profileMap = new ConcurrentHashMap<>();
+
+    public void addProfile(UUID playerId, Profile profile) {
+        profileMap.put(playerId, profile);
+    }
+
+    public Profile getProfile(Player player) {
+        return profileMap.get(player.getUniqueId());
+    }
+}
@@ -0,0 +1,17 @@
+package gg.auroramc.quests.api.quest;
+
+import gg.auroramc.quests.api.objective.Objective;
+
+import java.util.List;
+
+public class Quest {
+    private final List<Objective> objectives;
+
+    public Quest(List<Objective> objectives) {
+        this.objectives = objectives;
+    }
+
+    public List<Objective> getObjectives() {
+        return objectives;
+    }
+}
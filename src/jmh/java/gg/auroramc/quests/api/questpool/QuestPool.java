@@ -0,0 +1,18 @@
+package gg.auroramc.quests.api.questpool;
+
+import gg.auroramc.quests.api.quest.Quest;
+
+import java.util.Collection;
+import java.util.List;
+
+public class QuestPool {
+    private final List<Quest> quests;
+
+    public QuestPool(List<Quest> quests) {
+        this.quests = quests;
+    }
+
+    public Collection<Quest> getQuests() {
+        return quests;
+    }
+}
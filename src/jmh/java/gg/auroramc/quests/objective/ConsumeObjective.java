@@ -0,0 +1,14 @@
+package gg.auroramc.quests.objective;
+
+import gg.auroramc.quests.api.objective.ObjectiveDefinition;
+import gg.auroramc.quests.api.objective.TypedObjective;
+import gg.auroramc.quests.api.objective.filter.ObjectiveFilter;
+
+import java.util.List;
+
+public class ConsumeObjective extends TypedObjective {
+
+    public ConsumeObjective(ObjectiveDefinition definition, List<ObjectiveFilter> filters) {
+        super(definition, filters);
+    }
+}
@@ -0,0 +1,19 @@
+package gg.auroramc.potionaddon;
+
+import io.papermc.paper.datacomponent.DataComponentTypes;
+import io.papermc.paper.datacomponent.item.PotionContents;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.potion.PotionType;
+
+/**
+ * Reads the potion type from the {@code POTION_CONTENTS} data component. Only loaded when the
+ * data component API is present.
+ */
+final class ComponentPotionTypeReader implements PotionTypeReader {
+
+    @Override
+    public PotionType read(ItemStack item) {
+        PotionContents contents = item.getData(DataComponentTypes.POTION_CONTENTS);
+        return contents != null ? contents.potion() : null;
+    }
+}
@@ -0,0 +1,16 @@
+package gg.auroramc.potionaddon;
+
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.PotionMeta;
+import org.bukkit.potion.PotionType;
+
+/**
+ * Reads the potion type through a copy of the item's meta, for servers without data components.
+ */
+final class MetaPotionTypeReader implements PotionTypeReader {
+
+    @Override
+    public PotionType read(ItemStack item) {
+        return item.getItemMeta() instanceof PotionMeta potionMeta ? potionMeta.getBasePotionType() : null;
+    }
+}
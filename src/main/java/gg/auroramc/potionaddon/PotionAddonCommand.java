@@ -0,0 +1,66 @@
+package gg.auroramc.potionaddon;
+
+import gg.auroramc.potionaddon.metrics.AddonMetrics;
+import org.bukkit.ChatColor;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabExecutor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+public class PotionAddonCommand implements TabExecutor {
+    private static final List<String> SUBCOMMANDS = List.of("stats");
+
+    private final AddonMetrics metrics;
+
+    public PotionAddonCommand(AddonMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!sender.hasPermission("potionaddon.admin")) {
+            sender.sendMessage(ChatColor.RED + "You do not have permission to use this command.");
+            return true;
+        }
+        if (args.length == 0 || !args[0].equalsIgnoreCase("stats")) {
+            sender.sendMessage(ChatColor.RED + "Usage: /" + label + " stats [reset]");
+            return true;
+        }
+        if (args.length > 1 && args[1].equalsIgnoreCase("reset")) {
+            metrics.reset();
+            sender.sendMessage(ChatColor.GREEN + "Stats reset.");
+            return true;
+        }
+        sender.sendMessage(ChatColor.GOLD + "PotionConsumeAddon stats:");
+        for (String line : metrics.report()) {
+            sender.sendMessage(ChatColor.GRAY + line);
+        }
+        return true;
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String label, String[] args) {
+        if (args.length == 1) {
+            return matching(SUBCOMMANDS, args[0]);
+        }
+        if (args.length == 2 && args[0].equalsIgnoreCase("stats")) {
+            return matching(List.of("reset"), args[1]);
+        }
+        return Collections.emptyList();
+    }
+
+    private static List<String> matching(List<String> options, String prefix) {
+        List<String> matches = new ArrayList<>();
+        String lower = prefix.toLowerCase(Locale.ROOT);
+        for (String option : options) {
+            if (option.startsWith(lower)) {
+                matches.add(option);
+            }
+        }
+        return matches;
+    }
+}
@@ -1,35 +1,32 @@
 package gg.auroramc.potionaddon;
 
 import org.bukkit.Bukkit;
-import org.bukkit.Material;
-import org.bukkit.entity.Player;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerItemConsumeEvent;
-import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.PotionMeta;
+import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.potion.PotionType;
-
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.Collection;
-import java.util.List;
 
 import gg.auroramc.potionaddon.gui.QuestGuiCommand;
 import gg.auroramc.potionaddon.gui.QuestGuiListener;
 import gg.auroramc.potionaddon.gui.QuestGuiManager;
+import gg.auroramc.potionaddon.metrics.AddonMetrics;
+import gg.auroramc.potionaddon.quests.ConsumeBatcher;
+import gg.auroramc.potionaddon.quests.ConsumeObjectiveIndex;
+import gg.auroramc.potionaddon.quests.PotionTypeIds;
+import gg.auroramc.potionaddon.quests.QuestBindings;
+import gg.auroramc.potionaddon.quests.QuestsAdapter;
+import gg.auroramc.potionaddon.scheduler.TaskScheduler;
+import gg.auroramc.quests.api.factory.ObjectiveFactory;
 
 /**
  * Add-on for AuroraQuests that differentiates potion consumption by base type and level.
  *
- * <p>This plugin listens for {@link PlayerItemConsumeEvent}. When a player drinks a potion, it
- * determines the base potion type (e.g. STRENGTH, INVISIBILITY) and whether the potion is
- * upgraded (level II) or extended (long duration). It then uses reflection to interact with
- * AuroraQuests' API at runtime. The add‑on locates the player's active quests and any
- * {@code ConsumeObjective}s, constructs an appropriate {@code TypeId} meta object (with a key
- * matching the potion variant such as {@code strength}, {@code strong_strength} or
+ * <p>This plugin listens for {@link PlayerItemConsumeEvent} through {@link PotionConsumeListener}.
+ * When a player drinks a potion, it determines the base potion type (e.g. STRENGTH, INVISIBILITY)
+ * and whether the potion is upgraded (level II) or extended (long duration). It then uses method
+ * handles, resolved once at enable time by {@link QuestBindings}, to interact with AuroraQuests'
+ * API at runtime. The add‑on looks up the player's active {@code ConsumeObjective}s in a
+ * per-player {@link ConsumeObjectiveIndex}, constructs an appropriate {@code TypeId} meta object
+ * (with a key matching the potion variant such as {@code strength}, {@code strong_strength} or
  * {@code long_strength}) and progresses the objective by one. This allows quests that specify
  * potion types in their {@code types} argument to be progressed correctly when those specific
  * potions are consumed.</p>
@@ -51,125 +48,132 @@ import gg.auroramc.potionaddon.gui.QuestGuiManager;
  * {@code long_strength} entry. Without this add‑on, AuroraQuests treats all potions the same and
  * cannot differentiate between strength and invisibility or their levels.</p>
  *
- * <p>Note: This plugin uses reflection to access AuroraQuests classes. It will silently
- * do nothing if AuroraQuests is not present or if the internal API changes in future versions.</p>
+ * <p>New quests should use {@code task: POTION_CONSUME} instead, the native
+ * {@link PotionConsumeObjective} that AuroraQuests routes and filters itself. The {@code CONSUME}
+ * bridge above stays for existing quests and can be turned off with {@code consume-bridge: false}.</p>
+ *
+ * <p>Splash and lingering potions can be counted as well for every player they affect; see the
+ * {@code thrown-potions} section of the config.</p>
+ *
+ * <p>The consume path runs on the thread that owns the player, so on Folia it runs on the
+ * player's region thread. All shared state is thread-safe and deferred work goes through
+ * {@link TaskScheduler}.</p>
+ *
+ * <p>Timings of the consume path and the quest GUI are kept in {@link AddonMetrics} and shown by
+ * {@code /potionaddon stats}.</p>
+ *
+ * <p>Note: This plugin uses reflection to access AuroraQuests classes. Every class and member it
+ * needs is probed once at startup by a {@link QuestsAdapter} for the installed version. If none
+ * fits, the consume listeners are never registered and a single warning is logged, so a broken
+ * integration costs nothing per drink.</p>
  */
-public final class PotionConsumeAddon extends JavaPlugin implements Listener {
+public final class PotionConsumeAddon extends JavaPlugin {
     private QuestGuiManager questGuiManager;
+    private TaskScheduler taskScheduler;
+    private QuestBindings questBindings;
+    private ConsumeObjectiveIndex consumeObjectiveIndex;
+    private PotionTypeIds potionTypeIds;
+    private ConsumeBatcher consumeBatcher;
+    private boolean potionObjectiveRegistered;
+    private final AddonMetrics metrics = new AddonMetrics();
+
+    @Override
+    public void onLoad() {
+        // Objective types must be known before AuroraQuests loads its quest pools.
+        try {
+            ObjectiveFactory.registerObjective(PotionConsumeObjective.TASK_TYPE, PotionConsumeObjective.class);
+            potionObjectiveRegistered = true;
+        } catch (LinkageError e) {
+            getLogger().warning("Unable to register the " + PotionConsumeObjective.TASK_TYPE
+                    + " objective with this AuroraQuests version: " + e);
+        }
+    }
 
     @Override
     public void onEnable() {
         // Only register our listener if AuroraQuests is present.
-        if (Bukkit.getPluginManager().getPlugin("AuroraQuests") == null) {
+        Plugin auroraQuests = Bukkit.getPluginManager().getPlugin("AuroraQuests");
+        if (auroraQuests == null) {
             getLogger().warning("AuroraQuests not found; PotionConsumeAddon will remain inactive.");
             return;
         }
-        Bukkit.getPluginManager().registerEvents(this, this);
+        saveDefaultConfig();
+        taskScheduler = TaskScheduler.create(this);
+        if (potionObjectiveRegistered) {
+            Bukkit.getPluginManager().registerEvents(new ThrownPotionListener(), this);
+        }
+        if (getConfig().getBoolean("consume-bridge", true)) {
+            enableConsumeBridge(auroraQuests.getDescription().getVersion());
+        }
         questGuiManager = new QuestGuiManager(this);
         Bukkit.getPluginManager().registerEvents(new QuestGuiListener(questGuiManager), this);
         if (getCommand("questgui") != null) {
             getCommand("questgui").setExecutor(new QuestGuiCommand(questGuiManager));
         }
+        if (getCommand("potionaddon") != null) {
+            PotionAddonCommand potionAddonCommand = new PotionAddonCommand(metrics);
+            getCommand("potionaddon").setExecutor(potionAddonCommand);
+            getCommand("potionaddon").setTabCompleter(potionAddonCommand);
+        }
+        long logInterval = getConfig().getLong("metrics.log-interval-seconds", 0L);
+        if (logInterval > 0L) {
+            taskScheduler.runAsyncTimer(() -> getLogger().info("Stats: " + metrics.summary()), logInterval);
+        }
         getLogger().info("PotionConsumeAddon enabled and listening for potion consumption events.");
     }
 
-    @EventHandler(ignoreCancelled = true)
-    public void onPlayerConsume(PlayerItemConsumeEvent event) {
-        ItemStack item = event.getItem();
-        // Only handle drinking potions; ignore splash and lingering potions here.
-        if (item == null || item.getType() != Material.POTION) {
-            return;
+    /**
+     * Progress AuroraQuests' own {@code CONSUME} objectives by potion type, for quests that were
+     * written before {@code POTION_CONSUME} existed.
+     */
+    private void enableConsumeBridge(String questsVersion) {
+        try {
+            QuestsAdapter.Selection selection = QuestsAdapter.select(questsVersion);
+            questBindings = selection.bindings();
+            potionTypeIds = PotionTypeIds.build(questBindings);
+            getLogger().info("Bound to AuroraQuests " + questsVersion + " using the "
+                    + selection.adapter().getDisplayName() + " adapter.");
+        } catch (Throwable t) {
+            questBindings = null;
+            getLogger().warning("Unable to bind to AuroraQuests " + questsVersion
+                    + "; the CONSUME bridge is disabled: " + t.getMessage());
         }
-        if (!(item.getItemMeta() instanceof PotionMeta potionMeta)) {
-            return;
+        if (questBindings != null) {
+            consumeObjectiveIndex = new ConsumeObjectiveIndex(questBindings);
+            Bukkit.getPluginManager().registerEvents(consumeObjectiveIndex, this);
+            consumeBatcher = new ConsumeBatcher(taskScheduler, questBindings, metrics,
+                    getConfig().getConfigurationSection("batching"));
+            Bukkit.getPluginManager().registerEvents(consumeBatcher, this);
+            Bukkit.getPluginManager().registerEvents(new PotionConsumeListener(questBindings, potionTypeIds,
+                    consumeObjectiveIndex, consumeBatcher, metrics, getLogger(),
+                    getConfig().getConfigurationSection("thrown-potions")), this);
         }
+    }
 
-        PotionType type = potionMeta.getBasePotionType();
-        if (type == null) {
-            return;
+    @Override
+    public void onDisable() {
+        if (questGuiManager != null) {
+            questGuiManager.shutdown();
         }
-        // Some potion types such as WATER or MUNDANE are not considered quest potions.
-        if (type == PotionType.WATER || type == PotionType.MUNDANE || type == PotionType.THICK || type == PotionType.AWKWARD) {
-            return;
+        if (consumeBatcher != null) {
+            consumeBatcher.flushAll();
+        }
+        if (taskScheduler != null) {
+            taskScheduler.cancelAll();
         }
-
-        // PotionType already encodes long/strong variants (e.g. LONG_STRENGTH).
-        // Use the namespaced key to match AuroraQuests' potion type ids.
-        String variantKey = type.getKey().getKey();
-
-        progressConsumeObjectives(event.getPlayer(), variantKey);
     }
 
     /**
-     * Use reflection to progress all active Consume objectives for the given player using the
-     * specified potion key. If AuroraQuests' API is not available or changes, this method will
-     * silently fail without throwing exceptions.
-     *
-     * @param player     the player who consumed the potion
-     * @param potionKey  the key representing the potion variant (e.g. "strength", "long_strength")
+     * @return hot-path timings and counters, shown by {@code /potionaddon stats}
      */
-    @SuppressWarnings("unchecked")
-    private void progressConsumeObjectives(Player player, String potionKey) {
-        try {
-            // Get AuroraQuestsPlugin instance: AuroraQuestsPlugin.inst()
-            Class<?> questsClass = Class.forName("gg.auroramc.quests.api.AuroraQuestsPlugin");
-            Method instMethod = questsClass.getMethod("inst");
-            Object questsInstance = instMethod.invoke(null);
-
-            // Retrieve the ProfileManager and player's profile
-            Method getProfileManager = questsClass.getMethod("getProfileManager");
-            Object profileManager = getProfileManager.invoke(questsInstance);
-            Class<?> profileManagerClass = profileManager.getClass();
-            Method getProfile = profileManagerClass.getMethod("getProfile", Player.class);
-            Object profile = getProfile.invoke(profileManager, player);
-            if (profile == null) {
-                return;
-            }
-            // Get quest pools
-            Method getQuestPools = profile.getClass().getMethod("getQuestPools");
-            Collection<?> pools = (Collection<?>) getQuestPools.invoke(profile);
-            if (pools == null) {
-                return;
-            }
-            // Preload classes we need via reflection
-            Class<?> typeIdClass = Class.forName("gg.auroramc.aurora.api.item.TypeId");
-            Class<?> objectiveMetaClass = Class.forName("gg.auroramc.quests.api.objective.ObjectiveMeta");
-            Class<?> consumeObjectiveClass = Class.forName("gg.auroramc.quests.objective.ConsumeObjective");
-            Class<?> typedObjectiveClass = Class.forName("gg.auroramc.quests.api.objective.TypedObjective");
-
-            // Prepare TypeId constructor: new TypeId(namespace, key)
-            Constructor<?> typeIdConstructor = typeIdClass.getConstructor(String.class, String.class);
+    public AddonMetrics getMetrics() {
+        return metrics;
+    }
 
-            for (Object pool : pools) {
-                // For each pool, get active quests
-                Method getActiveQuests = pool.getClass().getMethod("getActiveQuests");
-                Collection<?> quests = (Collection<?>) getActiveQuests.invoke(pool);
-                if (quests == null) continue;
-                for (Object quest : quests) {
-                    Method getObjectives = quest.getClass().getMethod("getObjectives");
-                    List<?> objectives = (List<?>) getObjectives.invoke(quest);
-                    if (objectives == null) continue;
-                    for (Object objective : objectives) {
-                        // Check if this is a ConsumeObjective by class
-                        if (!consumeObjectiveClass.isAssignableFrom(objective.getClass())) {
-                            continue;
-                        }
-                        // Create a TypeId for the potion variant
-                        Object typeId = typeIdConstructor.newInstance("minecraft", potionKey);
-                        // Build the objective meta
-                        Method metaMethod = typedObjectiveClass.getDeclaredMethod("meta", typeIdClass);
-                        metaMethod.setAccessible(true);
-                        Object objectiveMeta = metaMethod.invoke(objective, typeId);
-                        // Progress the objective by 1
-                        Method progressMethod = objective.getClass().getMethod("progress", double.class, objectiveMetaClass);
-                        progressMethod.invoke(objective, 1.0d, objectiveMeta);
-                    }
-                }
-            }
-        } catch (ClassNotFoundException | NoSuchMethodException | InstantiationException |
-                 IllegalAccessException | InvocationTargetException e) {
-            // Fail silently to avoid spamming console; optionally print stack trace in debug mode
-            // e.printStackTrace();
-        }
+    /**
+     * @return the scheduler matching the server, Folia's region schedulers or the Bukkit scheduler
+     */
+    public TaskScheduler getTaskScheduler() {
+        return taskScheduler;
     }
 }
@@ -0,0 +1,211 @@
+package gg.auroramc.potionaddon;
+
+import gg.auroramc.potionaddon.metrics.AddonMetrics;
+import gg.auroramc.potionaddon.metrics.AddonMetrics.Operation;
+import gg.auroramc.potionaddon.quests.ConsumeBatcher;
+import gg.auroramc.potionaddon.quests.ConsumeObjectiveIndex;
+import gg.auroramc.potionaddon.quests.ConsumeTarget;
+import gg.auroramc.potionaddon.quests.PotionTypeIds;
+import gg.auroramc.potionaddon.quests.QuestBindings;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.AreaEffectCloud;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.AreaEffectCloudApplyEvent;
+import org.bukkit.event.entity.PotionSplashEvent;
+import org.bukkit.event.player.PlayerItemConsumeEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.potion.PotionType;
+
+import java.lang.invoke.WrongMethodTypeException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * Progresses consume objectives when players drink potions, and optionally when thrown splash or
+ * lingering potions affect them.
+ *
+ * <p>The potion type is resolved to a {@code TypeId} once per drink or projectile. Every affected
+ * player is then handled in one pass over their {@link ConsumeObjectiveIndex}, either progressing
+ * immediately or queueing on the {@link ConsumeBatcher}.</p>
+ *
+ * <p>Which thrown potions count is configured by the {@code thrown-potions} section. A lingering
+ * cloud counts once per player, however often it reapplies its effect.</p>
+ *
+ * <p>If a drink fails because AuroraQuests no longer matches the bound handles, the listener
+ * unregisters itself with one warning instead of failing again on every drink.</p>
+ */
+public final class PotionConsumeListener implements Listener {
+    private final QuestBindings bindings;
+    private final PotionTypeIds potionTypeIds;
+    private final PotionTypeReader potionTypeReader = PotionTypeReader.create();
+    private final ConsumeObjectiveIndex index;
+    private final ConsumeBatcher batcher;
+    private final AddonMetrics metrics;
+    private final Logger logger;
+    private final AtomicBoolean disabled = new AtomicBoolean();
+    private final boolean countSplash;
+    private final boolean countLingering;
+    // Players already counted per lingering cloud; entries go away with the cloud entity.
+    private final Map<AreaEffectCloud, Set<UUID>> countedByCloud = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public PotionConsumeListener(QuestBindings bindings, PotionTypeIds potionTypeIds, ConsumeObjectiveIndex index,
+                                 ConsumeBatcher batcher, AddonMetrics metrics, Logger logger,
+                                 ConfigurationSection thrownPotions) {
+        this.bindings = bindings;
+        this.potionTypeIds = potionTypeIds;
+        this.index = index;
+        this.batcher = batcher;
+        this.metrics = metrics;
+        this.logger = logger;
+        this.countSplash = thrownPotions != null && thrownPotions.getBoolean("splash", false);
+        this.countLingering = thrownPotions != null && thrownPotions.getBoolean("lingering", false);
+    }
+
+    @EventHandler(ignoreCancelled = true)
+    public void onPlayerConsume(PlayerItemConsumeEvent event) {
+        ItemStack item = event.getItem();
+        // Only drinking potions count here; thrown potions are handled below.
+        if (item == null || item.getType() != Material.POTION) {
+            return;
+        }
+        long start = System.nanoTime();
+        // Read from the data component when available rather than through the ItemMeta.
+        Object typeId = resolveTypeId(potionTypeReader.read(item));
+        if (typeId == null) {
+            return;
+        }
+
+        metrics.recordObjectivesProgressed(progressConsumeObjectives(event.getPlayer(), typeId));
+        metrics.recordDuration(Operation.CONSUME, start);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPotionSplash(PotionSplashEvent event) {
+        if (!countSplash) {
+            return;
+        }
+        long start = System.nanoTime();
+        Object typeId = resolveTypeId(potionTypeReader.read(event.getPotion().getItem()));
+        if (typeId == null) {
+            return;
+        }
+        int progressed = 0;
+        for (LivingEntity entity : event.getAffectedEntities()) {
+            if (entity instanceof Player player && event.getIntensity(player) > 0.0d) {
+                progressed += progressConsumeObjectives(player, typeId);
+            }
+        }
+        metrics.recordObjectivesProgressed(progressed);
+        metrics.recordDuration(Operation.SPLASH, start);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onAreaEffectCloudApply(AreaEffectCloudApplyEvent event) {
+        if (!countLingering) {
+            return;
+        }
+        long start = System.nanoTime();
+        AreaEffectCloud cloud = event.getEntity();
+        Object typeId = resolveTypeId(cloud.getBasePotionType());
+        if (typeId == null) {
+            return;
+        }
+        Set<UUID> counted = countedByCloud.computeIfAbsent(cloud, ignored -> new HashSet<>());
+        int progressed = 0;
+        for (LivingEntity entity : event.getAffectedEntities()) {
+            if (!(entity instanceof Player player) || counted.contains(player.getUniqueId())) {
+                continue;
+            }
+            // Only remember players something counted for, so an objective taken mid-cloud still counts.
+            int playerProgressed = progressConsumeObjectives(player, typeId);
+            if (playerProgressed > 0) {
+                counted.add(player.getUniqueId());
+                progressed += playerProgressed;
+            }
+        }
+        metrics.recordObjectivesProgressed(progressed);
+        metrics.recordDuration(Operation.LINGERING, start);
+    }
+
+    /**
+     * Progress all active Consume objectives for the given player using the specified potion type.
+     * Candidate objectives come from the player's {@link ConsumeObjectiveIndex}, so this is a
+     * single map lookup instead of a walk over every pool, quest and objective. In worlds with
+     * batching enabled the amounts are queued on the {@link ConsumeBatcher} instead and applied on
+     * the next tick. If AuroraQuests' API is not available or changes, this method will silently
+     * fail without throwing exceptions; failures are only counted in {@link AddonMetrics}.
+     *
+     * @param player  the player who consumed the potion
+     * @param typeId  the AuroraQuests {@code TypeId} of the potion variant (e.g. {@code minecraft:long_strength})
+     * @return the number of objectives progressed or queued
+     */
+    int progressConsumeObjectives(Player player, Object typeId) {
+        int progressed = 0;
+        try {
+            List<ConsumeTarget> targets = index.targetsFor(player, typeId);
+            if (targets.isEmpty()) {
+                return 0;
+            }
+            boolean batching = batcher.isBatching(player.getWorld());
+            for (int i = 0; i < targets.size(); i++) {
+                ConsumeTarget target = targets.get(i);
+                // The index also holds objectives of quests that are not active right now.
+                if (!bindings.isStarted(target.objective())) {
+                    continue;
+                }
+                if (batching) {
+                    batcher.add(player, target, 1.0d);
+                } else {
+                    bindings.progress(target.objective(), 1.0d, target.meta(bindings));
+                }
+                progressed++;
+            }
+        } catch (Throwable t) {
+            // Fail silently to avoid spamming console; the failure shows up in /potionaddon stats.
+            metrics.recordFailure(t);
+            if (isIncompatibility(t)) {
+                disable(t);
+            }
+        }
+        return progressed;
+    }
+
+    /**
+     * Whether the failure means the bound handles no longer match AuroraQuests, as opposed to a
+     * one-off failure inside an objective. Every class and member is resolved at enable, so a
+     * {@code LinkageError} or {@code ClassCastException} seen here comes from AuroraQuests' own
+     * objective, filter or reward code and only fails this event; only a handle whose type no
+     * longer fits its call site means the bindings are broken.
+     */
+    private static boolean isIncompatibility(Throwable t) {
+        return t instanceof WrongMethodTypeException;
+    }
+
+    private void disable(Throwable cause) {
+        if (disabled.compareAndSet(false, true)) {
+            HandlerList.unregisterAll(this);
+            logger.warning("AuroraQuests no longer matches the bound adapter; potion consume tracking is disabled: "
+                    + cause);
+        }
+    }
+
+    private Object resolveTypeId(PotionType type) {
+        // PotionType already encodes long/strong variants (e.g. LONG_STRENGTH). The table maps it to
+        // the shared TypeId for its namespaced key, and leaves out WATER, MUNDANE and other
+        // potions that are not considered quest potions.
+        return type != null ? potionTypeIds.get(type) : null;
+    }
+}
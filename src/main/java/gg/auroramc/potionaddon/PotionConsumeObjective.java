@@ -0,0 +1,125 @@
+package gg.auroramc.potionaddon;
+
+import gg.auroramc.aurora.api.item.TypeId;
+import gg.auroramc.potionaddon.quests.PotionTypeIds;
+import gg.auroramc.quests.api.objective.ObjectiveDefinition;
+import gg.auroramc.quests.api.objective.TypedObjective;
+import gg.auroramc.quests.api.profile.Profile;
+import gg.auroramc.quests.api.quest.Quest;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.player.PlayerItemConsumeEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.potion.PotionType;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * First-class {@code POTION_CONSUME} objective, registered with AuroraQuests' {@code ObjectiveFactory}.
+ *
+ * <p>AuroraQuests routes each event only to the objectives that subscribed to it and runs their
+ * filters ({@code types}, {@code worlds}, {@code regions}, ...) itself, so this objective needs no
+ * scan over the player's quests and no reflection. The potion variant is reported as the type,
+ * e.g. {@code strength}, {@code strong_strength} or {@code long_strength}:
+ * <pre>
+ * tasks:
+ *   drink_strength:
+ *     task: POTION_CONSUME
+ *     args:
+ *       amount: 3
+ *       types: [ "strong_strength" ]
+ *       splash: true
+ * </pre>
+ * The optional {@code splash} and {@code lingering} args also count thrown potions that affect the
+ * player; a lingering cloud counts once however often it reapplies. Thrown potion events are not
+ * player events, so rather than every objective receiving every splash, {@link ThrownPotionListener}
+ * handles each one once and progresses only the opted-in objectives of the players it affects.</p>
+ */
+public class PotionConsumeObjective extends TypedObjective {
+    public static final String TASK_TYPE = "POTION_CONSUME";
+
+    private static final PotionTypeReader POTION_TYPE_READER = PotionTypeReader.create();
+    private static final PotionTypeIds TYPE_IDS = PotionTypeIds.build(TypeId::new);
+    // Active objectives that count thrown potions, by player; see ThrownPotionListener.
+    private static final Map<UUID, Set<PotionConsumeObjective>> THROWN_BY_PLAYER = new ConcurrentHashMap<>();
+
+    private final UUID playerId;
+    private final boolean countSplash;
+    private final boolean countLingering;
+
+    public PotionConsumeObjective(Quest quest, ObjectiveDefinition definition, Profile.TaskDataWrapper data) {
+        super(quest, definition, data);
+        ConfigurationSection args = definition.getArgs();
+        this.playerId = data.profile().getUser().getUniqueId();
+        this.countSplash = args != null && args.getBoolean("splash", false);
+        this.countLingering = args != null && args.getBoolean("lingering", false);
+    }
+
+    @Override
+    protected void activate() {
+        onEvent(PlayerItemConsumeEvent.class, this::handleConsume, EventPriority.MONITOR);
+        if (countSplash || countLingering) {
+            // Added inside compute so a concurrent dispose cannot drop the set this is added to.
+            THROWN_BY_PLAYER.compute(playerId, (ignored, objectives) -> {
+                Set<PotionConsumeObjective> set = objectives != null ? objectives : ConcurrentHashMap.newKeySet();
+                set.add(this);
+                return set;
+            });
+        }
+    }
+
+    @Override
+    public void dispose() {
+        THROWN_BY_PLAYER.computeIfPresent(playerId, (ignored, objectives) -> {
+            objectives.remove(this);
+            return objectives.isEmpty() ? null : objectives;
+        });
+        super.dispose();
+    }
+
+    /**
+     * @return whether any online player has an active objective that counts thrown potions
+     */
+    static boolean anyCountThrownPotions() {
+        return !THROWN_BY_PLAYER.isEmpty();
+    }
+
+    /**
+     * Progress the player's objectives that count this kind of thrown potion.
+     *
+     * @return the number of objectives progressed
+     */
+    static int progressThrown(UUID playerId, PotionType type, boolean lingering) {
+        Set<PotionConsumeObjective> objectives = THROWN_BY_PLAYER.get(playerId);
+        if (objectives == null) {
+            return 0;
+        }
+        int progressed = 0;
+        for (PotionConsumeObjective objective : objectives) {
+            if (lingering ? objective.countLingering : objective.countSplash) {
+                objective.progress(type);
+                progressed++;
+            }
+        }
+        return progressed;
+    }
+
+    public void handleConsume(PlayerItemConsumeEvent event) {
+        ItemStack item = event.getItem();
+        if (item == null || item.getType() != Material.POTION) {
+            return;
+        }
+        progress(POTION_TYPE_READER.read(item));
+    }
+
+    private void progress(PotionType type) {
+        TypeId typeId = type != null ? (TypeId) TYPE_IDS.get(type) : null;
+        if (typeId != null) {
+            progress(1, meta(typeId));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package gg.auroramc.potionaddon;
+
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.potion.PotionType;
+
+/**
+ * Reads the base {@link PotionType} of a potion item.
+ *
+ * <p>On Paper 1.21.4 and newer the type is read straight from the {@code POTION_CONTENTS} data
+ * component instead of through the item's meta. Older servers fall back to
+ * {@link org.bukkit.inventory.meta.PotionMeta}.</p>
+ */
+interface PotionTypeReader {
+
+    static PotionTypeReader create() {
+        try {
+            Class.forName("io.papermc.paper.datacomponent.DataComponentTypes");
+            ItemStack.class.getMethod("getData", Class.forName("io.papermc.paper.datacomponent.DataComponentType$Valued"));
+            return new ComponentPotionTypeReader();
+        } catch (ClassNotFoundException | NoSuchMethodException | LinkageError e) {
+            return new MetaPotionTypeReader();
+        }
+    }
+
+    /**
+     * @return the base potion type, or {@code null} if the item carries none
+     */
+    PotionType read(ItemStack item);
+}
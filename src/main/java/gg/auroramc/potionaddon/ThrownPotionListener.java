@@ -0,0 +1,71 @@
+package gg.auroramc.potionaddon;
+
+import org.bukkit.entity.AreaEffectCloud;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.AreaEffectCloudApplyEvent;
+import org.bukkit.event.entity.PotionSplashEvent;
+import org.bukkit.potion.PotionType;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.WeakHashMap;
+
+/**
+ * Counts splash and lingering potions for {@link PotionConsumeObjective}s that opt in with the
+ * {@code splash} or {@code lingering} args.
+ *
+ * <p>Each event is handled once: the potion type is read once and only the affected players'
+ * objectives are visited, instead of every objective of every online player filtering the
+ * affected entities itself. A lingering cloud counts once per player, however often it reapplies
+ * its effect.</p>
+ */
+public final class ThrownPotionListener implements Listener {
+    private final PotionTypeReader potionTypeReader = PotionTypeReader.create();
+    // Players already counted per lingering cloud; entries go away with the cloud entity.
+    private final Map<AreaEffectCloud, Set<UUID>> countedByCloud = Collections.synchronizedMap(new WeakHashMap<>());
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPotionSplash(PotionSplashEvent event) {
+        if (!PotionConsumeObjective.anyCountThrownPotions()) {
+            return;
+        }
+        PotionType type = potionTypeReader.read(event.getPotion().getItem());
+        if (type == null) {
+            return;
+        }
+        for (LivingEntity entity : event.getAffectedEntities()) {
+            if (entity instanceof Player player && event.getIntensity(player) > 0.0d) {
+                PotionConsumeObjective.progressThrown(player.getUniqueId(), type, false);
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onAreaEffectCloudApply(AreaEffectCloudApplyEvent event) {
+        if (!PotionConsumeObjective.anyCountThrownPotions()) {
+            return;
+        }
+        AreaEffectCloud cloud = event.getEntity();
+        PotionType type = cloud.getBasePotionType();
+        if (type == null) {
+            return;
+        }
+        Set<UUID> counted = countedByCloud.computeIfAbsent(cloud, ignored -> new HashSet<>());
+        for (LivingEntity entity : event.getAffectedEntities()) {
+            if (!(entity instanceof Player player) || counted.contains(player.getUniqueId())) {
+                continue;
+            }
+            // Only remember players something counted for, so an objective taken mid-cloud still counts.
+            if (PotionConsumeObjective.progressThrown(player.getUniqueId(), type, true) > 0) {
+                counted.add(player.getUniqueId());
+            }
+        }
+    }
+}
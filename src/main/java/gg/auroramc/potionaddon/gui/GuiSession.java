@@ -0,0 +1,33 @@
+package gg.auroramc.potionaddon.gui;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * What the quest GUI remembers about one admin between menus: the pages to return to, the guild
+ * new quests go to and the book or chat input being waited for. State of an open menu lives in its
+ * {@link QuestMenu} holder instead.
+ *
+ * <p>Held by {@link QuestGuiManager} in one map and dropped as a whole when the player quits or
+ * has been idle for the session timeout. Fields are written from the player's thread and read from
+ * the chat and I/O threads, hence {@code volatile}.</p>
+ */
+final class GuiSession {
+    volatile int guildPage;
+    volatile int questPage;
+    volatile Path taskQuest;
+    volatile int taskPage;
+    volatile String selectedGuild;
+    volatile QuestBook editingBook;
+    volatile QuestMenu.BulkEditMenu bulkEdit;
+    final AtomicReference<QuestGuiManager.PendingChatInput> pendingChatInput = new AtomicReference<>();
+    private volatile long lastUsed = System.nanoTime();
+
+    void touch() {
+        lastUsed = System.nanoTime();
+    }
+
+    boolean idleLongerThan(long nanos) {
+        return System.nanoTime() - lastUsed > nanos;
+    }
+}
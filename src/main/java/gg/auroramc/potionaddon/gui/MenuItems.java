@@ -0,0 +1,109 @@
+package gg.auroramc.potionaddon.gui;
+
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The GUI's fixed menu items, built once when the GUI is created.
+ *
+ * <p>{@code Inventory#setItem} stores a copy of the stack it is given, so menus hand these shared
+ * prototypes straight to the inventory; they must never be modified. Only items that show a guild,
+ * quest or task are built per render.</p>
+ */
+final class MenuItems {
+    private final Map<Prototype, ItemStack> prototypes = new EnumMap<>(Prototype.class);
+    private final List<ItemStack> taskActions;
+    // Keyed by "enabled:label:page/total"; a handful of entries per menu.
+    private final Map<String, ItemStack> pageButtons = new ConcurrentHashMap<>();
+
+    MenuItems(List<String> taskActions) {
+        for (Prototype prototype : Prototype.values()) {
+            prototypes.put(prototype, create(prototype.material, prototype.name,
+                    Collections.singletonList(ChatColor.GRAY + prototype.description)));
+        }
+        List<ItemStack> actions = new ArrayList<>(taskActions.size());
+        for (String action : taskActions) {
+            actions.add(create(Material.PAPER, ChatColor.AQUA + action,
+                    Collections.singletonList(ChatColor.YELLOW + "Click to set action")));
+        }
+        this.taskActions = List.copyOf(actions);
+    }
+
+    ItemStack get(Prototype prototype) {
+        return prototypes.get(prototype);
+    }
+
+    /**
+     * @return the button for {@code TASK_ACTIONS.get(index)}
+     */
+    ItemStack taskAction(int index) {
+        return taskActions.get(index);
+    }
+
+    ItemStack previousPage(boolean enabled, int page, int totalPages) {
+        return pageButton(enabled, "Previous page", page, totalPages);
+    }
+
+    ItemStack nextPage(boolean enabled, int page, int totalPages) {
+        return pageButton(enabled, "Next page", page, totalPages);
+    }
+
+    private ItemStack pageButton(boolean enabled, String label, int page, int totalPages) {
+        String position = "Page " + (page + 1) + "/" + totalPages;
+        return pageButtons.computeIfAbsent(enabled + ":" + label + ":" + position,
+                key -> create(enabled ? Material.ARROW : Material.GRAY_DYE, ChatColor.AQUA + label,
+                        Collections.singletonList(ChatColor.GRAY + position)));
+    }
+
+    static ItemStack create(Material material, String name, List<String> lore) {
+        ItemStack item = new ItemStack(material);
+        ItemMeta meta = item.getItemMeta();
+        meta.setDisplayName(name);
+        meta.setLore(lore);
+        item.setItemMeta(meta);
+        return item;
+    }
+
+    enum Prototype {
+        RELOAD(Material.SUNFLOWER, ChatColor.YELLOW + "Reload list", "Refresh quest files"),
+        SEARCH(Material.COMPASS, ChatColor.AQUA + "Search quests", "By name, task or potion type"),
+        CREATE_QUEST(Material.LIME_WOOL, ChatColor.GREEN + "Create quest", "Create a new quest in this guild"),
+        BACK_TO_GUILDS(Material.ARROW, ChatColor.GRAY + "Back to guilds", "Return to guild list"),
+        DUPLICATE_QUEST(Material.PAPER, ChatColor.AQUA + "Duplicate quest", "Copy to a new file"),
+        EDIT_QUEST(Material.WRITABLE_BOOK, ChatColor.GREEN + "Edit quest", "Open a book editor"),
+        RENAME_QUEST(Material.NAME_TAG, ChatColor.YELLOW + "Rename quest", "Change file name"),
+        QUEST_TASKS(Material.NETHER_STAR, ChatColor.LIGHT_PURPLE + "Quest tasks", "Manage tasks & difficulty"),
+        BULK_EDIT(Material.ANVIL, ChatColor.GOLD + "Bulk edit", "Change tasks of every quest listed"),
+        BULK_AMOUNT(Material.OAK_SIGN, ChatColor.YELLOW + "Set amount", "For every matching task"),
+        BULK_ACTION(Material.KNOWLEDGE_BOOK, ChatColor.AQUA + "Set action", "For every matching task"),
+        QUEST_HISTORY(Material.LECTERN, ChatColor.GOLD + "History", "Preview or restore earlier versions"),
+        DELETE_QUEST(Material.BARRIER, ChatColor.RED + "Delete quest", "Remove this quest file"),
+        BACK_TO_LIST(Material.ARROW, ChatColor.GRAY + "Back", "Return to list"),
+        ADD_TASK(Material.LIME_WOOL, ChatColor.GREEN + "Add task", "Create a new task with easy difficulty"),
+        BACK_TO_QUEST(Material.ARROW, ChatColor.GRAY + "Back", "Return to quest menu"),
+        BACK_TO_TASKS(Material.ARROW, ChatColor.GRAY + "Back", "Return to tasks"),
+        CONFIRM_DELETE(Material.RED_WOOL, ChatColor.RED + "Confirm delete", "Restorable from History"),
+        CANCEL_DELETE(Material.GREEN_WOOL, ChatColor.GREEN + "Cancel", "Keep the quest file"),
+        NO_ISSUES(Material.GREEN_WOOL, ChatColor.GREEN + "No problems found", "Every quest passed the checks"),
+        WORKING(Material.CLOCK, ChatColor.YELLOW + "Working…", "Please wait");
+
+        private final Material material;
+        private final String name;
+        private final String description;
+
+        Prototype(Material material, String name, String description) {
+            this.material = material;
+            this.name = name;
+            this.description = description;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package gg.auroramc.potionaddon.gui;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * A quest file laid out as writable-book pages for the book editor, spread over several books when
+ * it is longer than one book holds.
+ *
+ * <p>Pages are cut in one pass at line ends, so a YAML line is only split when it is longer than a
+ * whole page; such a page ends in {@link #CONTINUATION} and the line carries on on the next page.
+ * A page whose own text ends in the marker, optionally followed by backslashes, gets one more
+ * backslash so it is not read back as continued; {@link #content()} takes it off again.
+ * A page holds at most {@value #ROWS_PER_PAGE} rows of about {@value #CHARS_PER_ROW} characters,
+ * which is what the client shows without scrolling and keeps every page well under the client's
+ * 1024-character and the server's byte limit. Books are edited one after another; the file is
+ * saved once the last one is closed.</p>
+ *
+ * <p>Only touched from the player's thread after it is opened.</p>
+ */
+final class QuestBook {
+    static final int MAX_PAGES = 100;
+    static final String CONTINUATION = "↩";
+    private static final char ESCAPE = '\\';
+    private static final int ROWS_PER_PAGE = 14;
+    private static final int CHARS_PER_ROW = 19;
+    private static final int MAX_PAGE_CHARS = ROWS_PER_PAGE * CHARS_PER_ROW;
+
+    final Path questFile;
+    final String originalHash;
+    private final List<List<String>> books;
+    private int current;
+
+    private QuestBook(Path questFile, String originalHash, List<List<String>> books) {
+        this.questFile = questFile;
+        this.originalHash = originalHash;
+        this.books = books;
+    }
+
+    /**
+     * Lay out the file's content; line endings are normalized to {@code \n}.
+     */
+    static QuestBook of(Path questFile, String content) {
+        String normalized = normalize(content);
+        List<String> pages = split(normalized);
+        List<List<String>> books = new ArrayList<>();
+        for (int start = 0; start < pages.size(); start += MAX_PAGES) {
+            books.add(new ArrayList<>(pages.subList(start, Math.min(start + MAX_PAGES, pages.size()))));
+        }
+        return new QuestBook(questFile, hash(normalized), books);
+    }
+
+    boolean hasMoreThanOneBook() {
+        return books.size() > 1;
+    }
+
+    List<String> currentPages() {
+        return books.get(current);
+    }
+
+    /**
+     * @return "Quest Editor" or "Quest Editor (2/3)" for multi-book quests
+     */
+    String currentTitle() {
+        return books.size() == 1 ? "Quest Editor" : "Quest Editor (" + (current + 1) + "/" + books.size() + ")";
+    }
+
+    /**
+     * Keep the player's pages for the current book and move on to the next one.
+     *
+     * @return whether there is another book to edit
+     */
+    boolean replaceCurrentAndAdvance(List<String> pages) {
+        books.set(current, new ArrayList<>(pages));
+        if (current + 1 < books.size()) {
+            current++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the file content the books now describe, normalized as in {@link #of}
+     */
+    String content() {
+        StringBuilder content = new StringBuilder();
+        boolean continued = true;
+        for (List<String> book : books) {
+            for (String page : book) {
+                if (!continued) {
+                    content.append('\n');
+                }
+                continued = page.endsWith(CONTINUATION);
+                if (continued) {
+                    content.append(page, 0, page.length() - CONTINUATION.length());
+                } else {
+                    content.append(page, 0, escaped(page) ? page.length() - 1 : page.length());
+                }
+            }
+        }
+        return normalize(content.toString());
+    }
+
+    static String hash(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String normalize(String content) {
+        String stripped = content.replace("\r\n", "\n").stripTrailing();
+        return stripped.isEmpty() ? "" : stripped + "\n";
+    }
+
+    private static List<String> split(String content) {
+        List<String> pages = new ArrayList<>();
+        StringBuilder page = new StringBuilder();
+        int rows = 0;
+        int length = content.length();
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = content.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+            int lineRows = rows(lineEnd - lineStart);
+            if (rows > 0 && rows + lineRows > ROWS_PER_PAGE) {
+                pages.add(escape(page.toString()));
+                page.setLength(0);
+                rows = 0;
+            }
+            if (lineRows > ROWS_PER_PAGE) {
+                // Longer than a page: cut it into full pages that continue on the next one.
+                int start = lineStart;
+                while (lineEnd - start > MAX_PAGE_CHARS) {
+                    int end = start + MAX_PAGE_CHARS - CONTINUATION.length();
+                    if (Character.isHighSurrogate(content.charAt(end - 1))) {
+                        end--;
+                    }
+                    pages.add(content.substring(start, end) + CONTINUATION);
+                    start = end;
+                }
+                page.append(content, start, lineEnd);
+                rows = rows(lineEnd - start);
+            } else {
+                if (rows > 0) {
+                    page.append('\n');
+                }
+                page.append(content, lineStart, lineEnd);
+                rows += lineRows;
+            }
+            lineStart = lineEnd + 1;
+        }
+        if (rows > 0 || pages.isEmpty()) {
+            pages.add(escape(page.toString()));
+        }
+        return pages;
+    }
+
+    /**
+     * @return the page with one more {@link #ESCAPE} if its text would otherwise end in the
+     *         continuation marker or in an already escaped one
+     */
+    private static String escape(String page) {
+        return page.endsWith(CONTINUATION) || escaped(page) ? page + ESCAPE : page;
+    }
+
+    /**
+     * Whether the page ends in the continuation marker followed by at least one {@link #ESCAPE}.
+     */
+    private static boolean escaped(String page) {
+        int end = page.length();
+        while (end > 0 && page.charAt(end - 1) == ESCAPE) {
+            end--;
+        }
+        return end < page.length() && page.startsWith(CONTINUATION, end - CONTINUATION.length());
+    }
+
+    private static int rows(int chars) {
+        return Math.max(1, (chars + CHARS_PER_ROW - 1) / CHARS_PER_ROW);
+    }
+}
@@ -0,0 +1,130 @@
+package gg.auroramc.potionaddon.gui;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Applies one task change to many quests at once, e.g. every {@code CONSUME} task of a guild.
+ *
+ * <p>Quests are parsed, changed and written in parallel on a small pool sized to the CPU count,
+ * each through {@link QuestModelCache#rewrite}, so the change is on disk when the batch reports
+ * and the cache already holds the result. A file that cannot be read or saved is recorded and the
+ * batch carries on with the rest.</p>
+ */
+final class QuestBulkEditor {
+    private final QuestModelCache questModels;
+    private final Logger logger;
+    private final ThreadPoolExecutor workers;
+
+    QuestBulkEditor(QuestModelCache questModels, Logger logger) {
+        this.questModels = questModels;
+        this.logger = logger;
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 30L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                task -> {
+                    Thread thread = new Thread(task, "PotionConsumeAddon-BulkEdit-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        workers.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * @param taskType    only change tasks of this type, case-insensitively; {@code null} for every task
+     * @param description what is changed, for the edit history
+     * @param change      applied to each matching task section
+     * @param onProgress  called from worker threads after each quest
+     * @return completes once every quest has been handled, never exceptionally
+     */
+    CompletableFuture<Result> apply(List<Path> quests, String taskType, String description,
+                                    Consumer<ConfigurationSection> change, Consumer<Progress> onProgress) {
+        AtomicInteger done = new AtomicInteger();
+        AtomicInteger changedQuests = new AtomicInteger();
+        AtomicInteger changedTasks = new AtomicInteger();
+        ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(quests.size());
+        for (Path questFile : quests) {
+            Runnable work = () -> {
+                try {
+                    int[] tasks = new int[1];
+                    boolean written = questModels.rewrite(questFile, description, config -> {
+                        tasks[0] = applyToTasks(config, taskType, change);
+                        return tasks[0] > 0;
+                    });
+                    if (written) {
+                        changedQuests.incrementAndGet();
+                        changedTasks.addAndGet(tasks[0]);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    failures.add(questFile.getFileName() + ": " + e.getMessage());
+                    logger.warning("Bulk edit failed for quest file " + questFile.getFileName() + ": " + e.getMessage());
+                }
+                onProgress.accept(new Progress(done.incrementAndGet(), quests.size(), failures.size()));
+            };
+            try {
+                futures.add(CompletableFuture.runAsync(work, workers));
+            } catch (RejectedExecutionException e) {
+                // Shutting down: finish the batch here rather than leave it half applied.
+                work.run();
+            }
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .handle((ignored, error) -> new Result(quests.size(), changedQuests.get(), changedTasks.get(),
+                        List.copyOf(failures)));
+    }
+
+    /**
+     * Stop accepting batches and wait briefly for running ones to reach the disk.
+     */
+    void shutdown() {
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warning("Bulk quest edit did not finish within 5 seconds; some quests may be unchanged.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int applyToTasks(ConfigurationSection config, String taskType,
+                                    Consumer<ConfigurationSection> change) {
+        ConfigurationSection tasks = config.getConfigurationSection("tasks");
+        if (tasks == null) {
+            return 0;
+        }
+        int changed = 0;
+        for (String key : tasks.getKeys(false)) {
+            ConfigurationSection task = tasks.getConfigurationSection(key);
+            if (task == null || (taskType != null && !taskType.equalsIgnoreCase(task.getString("task", "CONSUME")))) {
+                continue;
+            }
+            change.accept(task);
+            changed++;
+        }
+        return changed;
+    }
+
+    record Progress(int done, int total, int failed) {
+    }
+
+    /**
+     * @param failures one "file: reason" line per quest that could not be changed
+     */
+    record Result(int quests, int changedQuests, int changedTasks, List<String> failures) {
+    }
+}
@@ -0,0 +1,331 @@
+package gg.auroramc.potionaddon.gui;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * In-memory catalog of the quest files under {@code quest_pools}, grouped by guild.
+ *
+ * <p>The tree is walked once on {@link #start()}. After that a {@link WatchService} on the root and
+ * every guild folder keeps the catalog up to date from a daemon thread, so menu builds only read
+ * the immutable {@link #snapshot()} and never touch the disk. Writes made by the GUI itself are
+ * applied right away through {@link #refresh(Path)} so the next menu already shows them.</p>
+ *
+ * <p>Some network file systems never deliver watch events; {@link #requestRescan()} walks the
+ * tree again on the watcher thread.</p>
+ *
+ * <p>A {@link Listener} hears about every quest file that appears, changes or disappears, on
+ * whichever thread noticed it.</p>
+ */
+public final class QuestCatalog {
+    // Same depth as the walk it replaces: root/guild/quest/file.yml.
+    private static final int MAX_DEPTH = 3;
+    private static final Comparator<QuestFile> BY_NAME = Comparator.comparing(
+            file -> file.path().getFileName().toString().toLowerCase(Locale.ENGLISH));
+
+    private final Path root;
+    private final Function<Path, String> guildResolver;
+    private final Logger logger;
+    private final Listener listener;
+    private final Map<Path, QuestFile> files = new HashMap<>();
+    // Only touched by the watcher thread once it runs.
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+    private volatile Map<String, List<QuestFile>> byGuild = Collections.emptyMap();
+    private volatile boolean rescanRequested;
+    private volatile boolean closed;
+    private WatchService watchService;
+    private Thread watcher;
+
+    public QuestCatalog(Path root, Function<Path, String> guildResolver, Listener listener, Logger logger) {
+        this.root = root;
+        this.guildResolver = guildResolver;
+        this.listener = listener;
+        this.logger = logger;
+    }
+
+    /**
+     * Walk the tree once and start watching it. Without a watch service the catalog still works,
+     * but only picks up outside changes on {@link #requestRescan()}.
+     */
+    public void start() {
+        try {
+            watchService = root.getFileSystem().newWatchService();
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.warning("Unable to watch quest files; use Reload list to pick up changes: " + e.getMessage());
+        }
+        rescan();
+        watcher = new Thread(this::watch, "PotionConsumeAddon-QuestCatalog");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    public void close() {
+        closed = true;
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {
+                // Nothing left to release.
+            }
+        }
+        if (watcher != null) {
+            watcher.interrupt();
+        }
+    }
+
+    /**
+     * @return guild name to quest files sorted by file name; immutable and safe to read from any thread
+     */
+    public Map<String, List<QuestFile>> snapshot() {
+        return byGuild;
+    }
+
+    /**
+     * @return the catalogued quest file at the path, or {@code null}
+     */
+    public QuestFile file(Path path) {
+        synchronized (files) {
+            return files.get(path);
+        }
+    }
+
+    public void requestRescan() {
+        rescanRequested = true;
+    }
+
+    /**
+     * Re-read a single path after the GUI created, changed, moved or deleted it.
+     */
+    public void refresh(Path path) {
+        synchronized (files) {
+            if (!update(path)) {
+                return;
+            }
+        }
+        publish();
+    }
+
+    private void watch() {
+        while (!closed) {
+            if (rescanRequested) {
+                rescanRequested = false;
+                rescan();
+            }
+            if (watchService == null) {
+                sleepQuietly();
+                continue;
+            }
+            WatchKey key;
+            try {
+                key = watchService.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            if (key == null) {
+                continue;
+            }
+            Path directory = watchedDirectories.get(key);
+            boolean changed = false;
+            boolean overflow = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW || directory == null) {
+                    overflow = true;
+                    continue;
+                }
+                Path child = directory.resolve((Path) event.context());
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(child)) {
+                    // Files may already exist in a folder created by a move or an unzip.
+                    registerTree(child);
+                    changed = true;
+                    continue;
+                }
+                synchronized (files) {
+                    changed |= update(child);
+                }
+            }
+            if (!key.reset()) {
+                watchedDirectories.remove(key);
+            }
+            if (overflow) {
+                rescan();
+            } else if (changed) {
+                publish();
+            }
+        }
+    }
+
+    private void rescan() {
+        Map<Path, QuestFile> found = new HashMap<>();
+        if (Files.isDirectory(root)) {
+            try (Stream<Path> stream = Files.walk(root, MAX_DEPTH)) {
+                stream.forEach(path -> {
+                    if (Files.isDirectory(path)) {
+                        register(path);
+                    } else if (isQuestFile(path)) {
+                        QuestFile file = read(path);
+                        if (file != null) {
+                            found.put(path, file);
+                        }
+                    }
+                });
+            } catch (IOException | RuntimeException e) {
+                logger.warning("Unable to list quest files: " + e.getMessage());
+                return;
+            }
+        }
+        synchronized (files) {
+            for (Path known : files.keySet()) {
+                if (!found.containsKey(known)) {
+                    listener.questFileRemoved(known);
+                }
+            }
+            for (QuestFile file : found.values()) {
+                if (!file.equals(files.get(file.path()))) {
+                    listener.questFileChanged(file);
+                }
+            }
+            files.clear();
+            files.putAll(found);
+        }
+        publish();
+    }
+
+    private void registerTree(Path directory) {
+        int remaining = MAX_DEPTH - depth(directory);
+        if (remaining <= 0) {
+            return;
+        }
+        try (Stream<Path> stream = Files.walk(directory, remaining)) {
+            stream.forEach(path -> {
+                if (Files.isDirectory(path)) {
+                    register(path);
+                } else {
+                    synchronized (files) {
+                        update(path);
+                    }
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Unable to list quest files in " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private void register(Path directory) {
+        if (watchService == null || depth(directory) >= MAX_DEPTH) {
+            return;
+        }
+        try {
+            WatchKey key = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+            watchedDirectories.put(key, directory);
+        } catch (IOException | ClosedWatchServiceException e) {
+            logger.warning("Unable to watch " + directory + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Bring the entry for a path in line with the disk. Must hold the {@code files} lock.
+     *
+     * @return whether the catalog changed
+     */
+    private boolean update(Path path) {
+        if (Files.isDirectory(path)) {
+            return false;
+        }
+        if (isQuestFile(path) && depth(path) <= MAX_DEPTH) {
+            QuestFile file = read(path);
+            if (file != null) {
+                if (file.equals(files.put(path, file))) {
+                    return false;
+                }
+                listener.questFileChanged(file);
+                return true;
+            }
+        }
+        // Gone, or a deleted folder: drop the path and everything below it.
+        if (!files.keySet().removeIf(known -> known.startsWith(path))) {
+            return false;
+        }
+        listener.questFileRemoved(path);
+        return true;
+    }
+
+    private void publish() {
+        // Built under the lock so a slower builder cannot publish an older view over a newer one.
+        synchronized (files) {
+            List<QuestFile> all = new ArrayList<>(files.values());
+            all.sort(BY_NAME);
+            Map<String, List<QuestFile>> grouped = new HashMap<>();
+            for (QuestFile file : all) {
+                grouped.computeIfAbsent(guildResolver.apply(file.path()), key -> new ArrayList<>()).add(file);
+            }
+            grouped.replaceAll((guild, guildFiles) -> List.copyOf(guildFiles));
+            byGuild = Collections.unmodifiableMap(grouped);
+        }
+    }
+
+    private int depth(Path path) {
+        return root.relativize(path).getNameCount();
+    }
+
+    private static boolean isQuestFile(Path path) {
+        String name = path.getFileName().toString();
+        return name.endsWith(".yml") || name.endsWith(".yaml");
+    }
+
+    private static QuestFile read(Path path) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return null;
+            }
+            return new QuestFile(path, attributes.size(), attributes.lastModifiedTime().toMillis());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void sleepQuietly() {
+        try {
+            Thread.sleep(1000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Told about catalog changes. Must be quick and thread-safe; called with the catalog locked.
+     */
+    public interface Listener {
+        void questFileChanged(QuestFile file);
+
+        /**
+         * @param path a removed quest file, or a removed folder and everything below it
+         */
+        void questFileRemoved(Path path);
+    }
+
+    /**
+     * A quest file with the attributes the menus show.
+     */
+    public record QuestFile(Path path, long size, long lastModified) {
+    }
+}
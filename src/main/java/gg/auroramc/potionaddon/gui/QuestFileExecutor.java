@@ -0,0 +1,97 @@
+package gg.auroramc.potionaddon.gui;
+
+import gg.auroramc.potionaddon.scheduler.TaskScheduler;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Runs the GUI's quest file I/O off the server thread.
+ *
+ * <p>Tasks run one after another on a single virtual thread, so two quick edits to the same file
+ * are applied in click order. The completion callback runs back on the player's thread through
+ * the {@link TaskScheduler}, where it can open or refresh inventories. While a task runs, the
+ * clicked slot shows a "Working…" placeholder; if the task fails the slot is restored and the
+ * player gets the error.</p>
+ */
+public final class QuestFileExecutor {
+    private final TaskScheduler scheduler;
+    private final ItemStack placeholderItem;
+    private final Logger logger;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("PotionConsumeAddon-QuestIO").factory());
+
+    public QuestFileExecutor(TaskScheduler scheduler, ItemStack placeholderItem, Logger logger) {
+        this.scheduler = scheduler;
+        this.placeholderItem = placeholderItem;
+        this.logger = logger;
+    }
+
+    /**
+     * @param player        the player waiting for the result
+     * @param inventory     the inventory to show the placeholder in, or {@code null} for none
+     * @param slot          the slot to show the placeholder in
+     * @param task          the I/O, run off the server thread
+     * @param onComplete    run on the player's thread with the task's result
+     * @param failurePrefix message prefix shown to the player if the task fails
+     */
+    public <T> void submit(Player player, Inventory inventory, int slot, IoTask<T> task, Consumer<T> onComplete,
+                           String failurePrefix) {
+        ItemStack previous = null;
+        boolean placeholder = inventory != null && slot >= 0 && slot < inventory.getSize();
+        if (placeholder) {
+            previous = inventory.getItem(slot);
+            inventory.setItem(slot, placeholderItem);
+        }
+        ItemStack restore = previous;
+        Runnable work = () -> {
+            T result;
+            try {
+                result = task.call();
+            } catch (IOException | RuntimeException e) {
+                scheduler.runForEntity(player, () -> {
+                    if (placeholder) {
+                        inventory.setItem(slot, restore);
+                    }
+                    player.sendMessage(ChatColor.RED + failurePrefix + e.getMessage());
+                });
+                return;
+            }
+            scheduler.runForEntity(player, () -> onComplete.accept(result));
+        };
+        try {
+            executor.execute(work);
+        } catch (RejectedExecutionException e) {
+            // Shutting down: finish the write here rather than lose it.
+            work.run();
+        }
+    }
+
+    /**
+     * Stop accepting work and wait briefly for pending writes to reach the disk.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warning("Quest file I/O did not finish within 5 seconds; some edits may be lost.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    public interface IoTask<T> {
+        T call() throws IOException;
+    }
+}
@@ -6,6 +6,10 @@ import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
 public class QuestGuiCommand implements CommandExecutor {
     private final QuestGuiManager manager;
 
@@ -23,6 +27,45 @@ public class QuestGuiCommand implements CommandExecutor {
             player.sendMessage(ChatColor.RED + "You do not have permission to use this command.");
             return true;
         }
+        if (args.length > 0 && args[0].equalsIgnoreCase("search")) {
+            if (args.length < 2) {
+                player.sendMessage(ChatColor.RED + "Usage: /" + label + " search <query>");
+                return true;
+            }
+            String query = String.join(" ", Arrays.copyOfRange(args, 1, args.length));
+            List<QuestCatalog.QuestFile> results = manager.searchQuests(query);
+            if (results.isEmpty()) {
+                player.sendMessage(ChatColor.YELLOW + "No quests match \"" + query + "\".");
+                return true;
+            }
+            player.openInventory(manager.createSearchMenu(query, results, 0));
+            return true;
+        }
+        if (args.length > 0 && args[0].equalsIgnoreCase("history")) {
+            if (args.length < 2) {
+                player.sendMessage(ChatColor.RED + "Usage: /" + label + " history <file under quest_pools>");
+                return true;
+            }
+            Path questsDirectory = manager.getQuestsDirectory();
+            Path questFile = questsDirectory.resolve(String.join(" ", Arrays.copyOfRange(args, 1, args.length)))
+                    .normalize();
+            if (!questFile.startsWith(questsDirectory)) {
+                player.sendMessage(ChatColor.RED + "The file must be inside quest_pools.");
+                return true;
+            }
+            manager.openHistory(player, questFile, null, -1);
+            return true;
+        }
+        if (args.length > 0 && args[0].equalsIgnoreCase("lint")) {
+            String guild = args.length > 1 ? String.join(" ", Arrays.copyOfRange(args, 1, args.length)) : null;
+            if (!manager.lintQuests(player, guild)) {
+                player.sendMessage(ChatColor.YELLOW + (guild != null
+                        ? "Guild " + guild + " has no quests." : "There are no quests to check."));
+                return true;
+            }
+            player.sendMessage(ChatColor.GRAY + "Checking quests…");
+            return true;
+        }
         player.openInventory(manager.createMainMenu(player.getUniqueId(), 0));
         return true;
     }
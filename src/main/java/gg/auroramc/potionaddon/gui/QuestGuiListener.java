@@ -1,25 +1,24 @@
 package gg.auroramc.potionaddon.gui;
 
-import org.bukkit.Bukkit;
+import io.papermc.paper.event.player.AsyncChatEvent;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
-import org.bukkit.event.inventory.InventoryCloseEvent;
-import org.bukkit.event.player.AsyncPlayerChatEvent;
 import org.bukkit.event.player.PlayerEditBookEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.BookMeta;
 
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 import java.util.UUID;
 
 public class QuestGuiListener implements Listener {
@@ -31,133 +30,117 @@ public class QuestGuiListener implements Listener {
 
     @EventHandler
     public void onInventoryClick(InventoryClickEvent event) {
-        if (!(event.getWhoClicked() instanceof Player player)) {
-            return;
-        }
-        String title = event.getView().getTitle();
-        if (!title.startsWith(QuestGuiManager.MAIN_TITLE)
-                && !title.startsWith(QuestGuiManager.GUILD_TITLE_PREFIX)
-                && !title.startsWith(QuestGuiManager.QUEST_TITLE_PREFIX)
-                && !title.startsWith(QuestGuiManager.TASKS_TITLE_PREFIX)
-                && !title.startsWith(QuestGuiManager.TASK_ACTION_TITLE_PREFIX)
-                && !title.startsWith(QuestGuiManager.DELETE_TITLE_PREFIX)) {
+        Inventory inventory = event.getInventory();
+        if (!(inventory.getHolder(false) instanceof QuestMenu menu)
+                || !(event.getWhoClicked() instanceof Player player)) {
             return;
         }
 
         event.setCancelled(true);
 
+        // Clicks in the player's own inventory below the menu.
+        if (event.getRawSlot() >= inventory.getSize()) {
+            return;
+        }
         ItemStack clicked = event.getCurrentItem();
         if (clicked == null || clicked.getType() == Material.AIR) {
             return;
         }
 
-        UUID playerId = player.getUniqueId();
-        if (title.startsWith(QuestGuiManager.MAIN_TITLE)) {
-            handleGuildMenuClick(player, event.getSlot(), clicked);
-            return;
-        }
-        if (title.startsWith(QuestGuiManager.GUILD_TITLE_PREFIX)) {
-            handleGuildQuestMenuClick(player, event.getSlot(), clicked);
-            return;
-        }
-        if (title.startsWith(QuestGuiManager.DELETE_TITLE_PREFIX)) {
-            handleDeleteMenuClick(player, clicked);
-            return;
-        }
-        if (title.startsWith(QuestGuiManager.TASKS_TITLE_PREFIX)) {
-            handleTaskMenuClick(player, event, clicked);
-            return;
-        }
-        if (title.startsWith(QuestGuiManager.TASK_ACTION_TITLE_PREFIX)) {
-            handleTaskActionMenuClick(player, event.getSlot(), clicked);
-            return;
+        int slot = event.getSlot();
+        switch (menu) {
+            case QuestMenu.MainMenu main -> handleGuildMenuClick(player, main, slot);
+            case QuestMenu.GuildMenu guild -> handleGuildQuestMenuClick(player, guild, slot);
+            case QuestMenu.SearchMenu search -> handleSearchMenuClick(player, search, slot);
+            case QuestMenu.BulkEditMenu bulk -> handleBulkEditMenuClick(player, bulk, slot);
+            case QuestMenu.LintMenu lint -> handleLintMenuClick(player, lint, slot);
+            case QuestMenu.HistoryMenu history -> handleHistoryMenuClick(player, history, event);
+            case QuestMenu.QuestActions quest -> handleQuestMenuClick(player, quest, inventory, slot);
+            case QuestMenu.DeleteConfirm delete -> handleDeleteMenuClick(player, delete, inventory, slot);
+            case QuestMenu.TaskMenu tasks -> handleTaskMenuClick(player, tasks, event);
+            case QuestMenu.TaskActionMenu actions -> handleTaskActionMenuClick(player, actions, inventory, slot);
         }
-        handleQuestMenuClick(player, clicked);
     }
 
     @EventHandler
-    public void onInventoryClose(InventoryCloseEvent event) {
-        String title = event.getView().getTitle();
-        if (title.startsWith(QuestGuiManager.DELETE_TITLE_PREFIX)) {
-            manager.clearSelections(event.getPlayer().getUniqueId());
-        }
+    public void onQuit(PlayerQuitEvent event) {
+        manager.endSession(event.getPlayer().getUniqueId());
     }
 
     @EventHandler
     public void onPlayerEditBook(PlayerEditBookEvent event) {
-        UUID playerId = event.getPlayer().getUniqueId();
         BookMeta newMeta = event.getNewBookMeta();
-        try {
-            manager.updateQuestFromBook(playerId, newMeta);
-        } catch (IOException e) {
-            event.getPlayer().sendMessage(ChatColor.RED + "Failed to save quest file: " + e.getMessage());
-        }
+        manager.updateQuestFromBook(event.getPlayer(), newMeta);
     }
 
-    @EventHandler
-    public void onChat(AsyncPlayerChatEvent event) {
-        UUID playerId = event.getPlayer().getUniqueId();
-        QuestGuiManager.PendingChatInput pending = manager.consumeChatInput(playerId);
+    /**
+     * Runs on the chat thread: the reply is parsed and validated here, file checks and writes run
+     * on the {@link QuestFileExecutor}, and only reopening a menu goes back to the player's thread.
+     * Lowest priority so chat plugins never relay the reply.
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onChat(AsyncChatEvent event) {
+        Player player = event.getPlayer();
+        QuestGuiManager.PendingChatInput pending = manager.consumeChatInput(player.getUniqueId());
         if (pending == null) {
             return;
         }
         event.setCancelled(true);
 
-        String message = event.getMessage().trim();
+        String message = PlainTextComponentSerializer.plainText().serialize(event.originalMessage()).trim();
         if (message.equalsIgnoreCase("cancel")) {
-            Bukkit.getScheduler().runTask(manager.getPlugin(),
-                    () -> event.getPlayer().sendMessage(ChatColor.YELLOW + "Action cancelled."));
-            return;
-        }
-
-        Bukkit.getScheduler().runTask(manager.getPlugin(), () -> {
-            try {
-                switch (pending.getAction()) {
-                    case CREATE -> handleCreate(event.getPlayer(), message);
-                    case RENAME -> handleRename(event.getPlayer(), pending.getQuestFile(), message);
-                    case DUPLICATE -> handleDuplicate(event.getPlayer(), pending.getQuestFile(), message);
-                    case SET_TASK_ACTION -> handleTaskAction(event.getPlayer(), pending.getQuestFile(), pending.getTaskKey(), message);
-                    case SET_TASK_AMOUNT -> handleTaskAmount(event.getPlayer(), pending.getQuestFile(), pending.getTaskKey(), message);
-                    default -> {
-                    }
-                }
-            } catch (IOException e) {
-                event.getPlayer().sendMessage(ChatColor.RED + "Failed to update quest file: " + e.getMessage());
+            player.sendMessage(ChatColor.YELLOW + "Action cancelled.");
+            return;
+        }
+
+        switch (pending.getAction()) {
+            case CREATE -> handleCreate(player, pending.getGuildName(), message);
+            case RENAME -> handleRename(player, pending.getQuestFile(), message);
+            case DUPLICATE -> handleDuplicate(player, pending.getQuestFile(), message);
+            case SET_TASK_ACTION -> handleTaskAction(player, pending.getQuestFile(), pending.getTaskKey(), message);
+            case SET_TASK_AMOUNT -> handleTaskAmount(player, pending.getQuestFile(), pending.getTaskKey(), message);
+            case SEARCH -> handleSearch(player, message);
+            case BULK_FILTER -> handleBulkFilter(player, message);
+            case BULK_AMOUNT -> handleBulkAmount(player, message);
+            case BULK_ACTION -> handleBulkAction(player, message);
+            default -> {
             }
-        });
+        }
     }
 
-    private void handleGuildMenuClick(Player player, int slot, ItemStack clicked) {
+    private void handleGuildMenuClick(Player player, QuestMenu.MainMenu menu, int slot) {
         UUID playerId = player.getUniqueId();
-        Map<Integer, String> slots = manager.getGuildMenuSlots(playerId);
-        if (slots.containsKey(slot)) {
-            String guild = slots.get(slot);
+        String guild = menu.guildSlots.get(slot);
+        if (guild != null) {
             player.openInventory(manager.createGuildQuestMenu(playerId, guild, 0));
             return;
         }
 
         if (slot == 46) {
-            player.openInventory(manager.createMainMenu(playerId, manager.getCurrentGuildPage(playerId)));
+            manager.reloadQuestFiles();
+            player.openInventory(manager.createMainMenu(playerId, menu.page));
+            return;
+        }
+        if (slot == 49) {
+            player.closeInventory();
+            manager.beginChatInput(playerId, QuestGuiManager.ChatAction.SEARCH, null);
+            player.sendMessage(ChatColor.AQUA + "Enter words to search for (or type 'cancel').");
             return;
         }
         if (slot == 52) {
-            int page = manager.getCurrentGuildPage(playerId) - 1;
-            player.openInventory(manager.createMainMenu(playerId, page));
+            player.openInventory(manager.createMainMenu(playerId, menu.page - 1));
             return;
         }
         if (slot == 53) {
-            int page = manager.getCurrentGuildPage(playerId) + 1;
-            player.openInventory(manager.createMainMenu(playerId, page));
+            player.openInventory(manager.createMainMenu(playerId, menu.page + 1));
         }
     }
 
-    private void handleGuildQuestMenuClick(Player player, int slot, ItemStack clicked) {
+    private void handleGuildQuestMenuClick(Player player, QuestMenu.GuildMenu menu, int slot) {
         UUID playerId = player.getUniqueId();
-        Map<Integer, Path> slots = manager.getGuildQuestMenuSlots(playerId);
-        if (slots.containsKey(slot)) {
-            Path questFile = slots.get(slot);
-            Inventory questMenu = manager.createQuestMenu(playerId, questFile);
-            player.openInventory(questMenu);
+        Path questFile = menu.questSlots.get(slot);
+        if (questFile != null) {
+            player.openInventory(manager.createQuestMenu(playerId, questFile));
             return;
         }
 
@@ -168,8 +151,12 @@ public class QuestGuiListener implements Listener {
             return;
         }
         if (slot == 46) {
-            String guild = manager.getSelectedGuild(playerId);
-            player.openInventory(manager.createGuildQuestMenu(playerId, guild, manager.getCurrentPage(playerId)));
+            manager.reloadQuestFiles();
+            player.openInventory(manager.createGuildQuestMenu(playerId, menu.guild, menu.page));
+            return;
+        }
+        if (slot == 47) {
+            player.openInventory(manager.createBulkEditMenu(playerId, menu));
             return;
         }
         if (slot == 48) {
@@ -177,111 +164,214 @@ public class QuestGuiListener implements Listener {
             return;
         }
         if (slot == 52) {
-            int page = manager.getCurrentPage(playerId) - 1;
-            String guild = manager.getSelectedGuild(playerId);
-            player.openInventory(manager.createGuildQuestMenu(playerId, guild, page));
+            player.openInventory(manager.createGuildQuestMenu(playerId, menu.guild, menu.page - 1));
             return;
         }
         if (slot == 53) {
-            int page = manager.getCurrentPage(playerId) + 1;
-            String guild = manager.getSelectedGuild(playerId);
-            player.openInventory(manager.createGuildQuestMenu(playerId, guild, page));
+            player.openInventory(manager.createGuildQuestMenu(playerId, menu.guild, menu.page + 1));
         }
     }
 
-    private void handleQuestMenuClick(Player player, ItemStack clicked) {
-        String name = clicked.getItemMeta() != null ? clicked.getItemMeta().getDisplayName() : "";
+    private void handleSearchMenuClick(Player player, QuestMenu.SearchMenu menu, int slot) {
         UUID playerId = player.getUniqueId();
-        Path questFile = manager.getSelectedQuest(playerId);
-        if (questFile == null) {
-            player.closeInventory();
+        Path questFile = menu.questSlots.get(slot);
+        if (questFile != null) {
+            player.openInventory(manager.createQuestMenu(playerId, questFile));
             return;
         }
 
-        if (clicked.getType() == Material.WRITABLE_BOOK) {
-            player.closeInventory();
-            manager.openEditor(player, questFile);
-            player.sendMessage(ChatColor.GREEN + "Editing quest: " + questFile.getFileName());
+        if (slot == 48) {
+            player.openInventory(manager.createMainMenu(playerId, manager.getCurrentGuildPage(playerId)));
             return;
         }
-        if (clicked.getType() == Material.NETHER_STAR) {
-            player.openInventory(manager.createTaskMenu(playerId, questFile));
+        if (slot == 49) {
+            player.openInventory(manager.createBulkEditMenu(playerId, menu));
             return;
         }
-        if (clicked.getType() == Material.NAME_TAG) {
+        if (slot == 52) {
+            player.openInventory(manager.createSearchMenu(menu.query, menu.results, menu.page - 1));
+            return;
+        }
+        if (slot == 53) {
+            player.openInventory(manager.createSearchMenu(menu.query, menu.results, menu.page + 1));
+        }
+    }
+
+    private void handleBulkEditMenuClick(Player player, QuestMenu.BulkEditMenu menu, int slot) {
+        UUID playerId = player.getUniqueId();
+        if (slot == 31) {
+            player.openInventory(manager.createBulkEditReturnMenu(playerId, menu));
+            return;
+        }
+        if (slot == 10) {
             player.closeInventory();
-            manager.beginChatInput(playerId, QuestGuiManager.ChatAction.RENAME, questFile);
-            player.sendMessage(ChatColor.YELLOW + "Enter a new file name (or type 'cancel').");
+            manager.beginChatInput(playerId, QuestGuiManager.ChatAction.BULK_FILTER, null);
+            player.sendMessage(ChatColor.YELLOW + "Enter the task type to change, 'any' for all tasks (or type 'cancel').");
             return;
         }
-        if (clicked.getType() == Material.PAPER && ChatColor.stripColor(name).toLowerCase(Locale.ENGLISH).contains("duplicate")) {
+        if (slot == 12) {
             player.closeInventory();
-            manager.beginChatInput(playerId, QuestGuiManager.ChatAction.DUPLICATE, questFile);
-            player.sendMessage(ChatColor.YELLOW + "Enter a new file name for the copy (or type 'cancel').");
+            manager.beginChatInput(playerId, QuestGuiManager.ChatAction.BULK_AMOUNT, null);
+            player.sendMessage(ChatColor.YELLOW + "Enter required amount for every matching task (or type 'cancel').");
             return;
         }
-        if (clicked.getType() == Material.BARRIER) {
-            player.openInventory(manager.createDeleteConfirmMenu(questFile));
+        if (slot == 14) {
+            player.closeInventory();
+            manager.beginChatInput(playerId, QuestGuiManager.ChatAction.BULK_ACTION, null);
+            player.sendMessage(ChatColor.YELLOW + "Enter action for every matching task (or type 'cancel').");
             return;
         }
-        if (clicked.getType() == Material.ARROW) {
-            String guild = manager.getGuildForQuest(questFile);
-            player.openInventory(manager.createGuildQuestMenu(playerId, guild, manager.getCurrentPage(playerId)));
+        QuestGuiManager.QuestDifficulty[] difficulties = QuestGuiManager.QuestDifficulty.values();
+        int index = (slot - 20) / 2;
+        if (slot >= 20 && slot % 2 == 0 && index < difficulties.length) {
+            QuestGuiManager.QuestDifficulty difficulty = difficulties[index];
+            manager.startBulkEdit(player, menu, "difficulty to " + difficulty.name(),
+                    task -> task.set("difficulty", difficulty.name()));
         }
     }
 
-    private void handleDeleteMenuClick(Player player, ItemStack clicked) {
-        Path questFile = manager.getSelectedQuest(player.getUniqueId());
-        if (questFile == null) {
-            player.closeInventory();
+    private void handleLintMenuClick(Player player, QuestMenu.LintMenu menu, int slot) {
+        UUID playerId = player.getUniqueId();
+        Path questFile = menu.issueSlots.get(slot);
+        if (questFile != null) {
+            player.openInventory(manager.createQuestMenu(playerId, questFile));
             return;
         }
 
-        if (clicked.getType() == Material.RED_WOOL) {
-            try {
-                Files.deleteIfExists(questFile);
-                player.sendMessage(ChatColor.RED + "Quest deleted: " + questFile.getFileName());
-            } catch (IOException e) {
-                player.sendMessage(ChatColor.RED + "Failed to delete quest: " + e.getMessage());
+        if (slot == 48) {
+            player.openInventory(manager.createMainMenu(playerId, manager.getCurrentGuildPage(playerId)));
+            return;
+        }
+        if (slot == 52) {
+            player.openInventory(manager.createLintMenu(menu.scope, menu.report, menu.page - 1));
+            return;
+        }
+        if (slot == 53) {
+            player.openInventory(manager.createLintMenu(menu.scope, menu.report, menu.page + 1));
+        }
+    }
+
+    private void handleHistoryMenuClick(Player player, QuestMenu.HistoryMenu menu, InventoryClickEvent event) {
+        Path questFile = menu.questFile;
+        int slot = event.getSlot();
+        QuestHistory.Version version = menu.versionSlots.get(slot);
+        if (version != null) {
+            if (!version.present()) {
+                return;
+            }
+            if (event.isShiftClick()) {
+                manager.restoreVersion(player, questFile, version, event.getInventory(), slot);
+            } else {
+                player.closeInventory();
+                manager.previewVersion(player, questFile, version, null, -1);
             }
-            String guild = manager.getGuildForQuest(questFile);
-            player.openInventory(manager.createGuildQuestMenu(player.getUniqueId(), guild, manager.getCurrentPage(player.getUniqueId())));
             return;
         }
-        if (clicked.getType() == Material.GREEN_WOOL) {
-            player.openInventory(manager.createQuestMenu(player.getUniqueId(), questFile));
+
+        if (slot == 49) {
+            // The quest may have been deleted; only go back to it if it is still there.
+            manager.getFileExecutor().submit(player, event.getInventory(), slot, () -> Files.exists(questFile),
+                    exists -> {
+                        if (exists) {
+                            player.openInventory(manager.createQuestMenu(player.getUniqueId(), questFile));
+                        } else {
+                            player.openInventory(manager.createMainMenu(player.getUniqueId(),
+                                    manager.getCurrentGuildPage(player.getUniqueId())));
+                        }
+                    }, "Failed to read quest file: ");
+            return;
+        }
+        if (slot == 52) {
+            player.openInventory(manager.createHistoryMenu(questFile, menu.versions, menu.page - 1));
+            return;
+        }
+        if (slot == 53) {
+            player.openInventory(manager.createHistoryMenu(questFile, menu.versions, menu.page + 1));
         }
     }
 
-    private void handleTaskMenuClick(Player player, InventoryClickEvent event, ItemStack clicked) {
+    private void handleQuestMenuClick(Player player, QuestMenu.QuestActions menu, Inventory inventory, int slot) {
         UUID playerId = player.getUniqueId();
-        Path questFile = manager.getSelectedQuest(playerId);
-        if (questFile == null) {
-            player.closeInventory();
-            return;
+        Path questFile = menu.questFile;
+        switch (slot) {
+            case 10 -> {
+                player.closeInventory();
+                manager.beginChatInput(playerId, QuestGuiManager.ChatAction.DUPLICATE, questFile);
+                player.sendMessage(ChatColor.YELLOW + "Enter a new file name for the copy (or type 'cancel').");
+            }
+            case 11 -> {
+                player.closeInventory();
+                manager.openEditor(player, questFile);
+                player.sendMessage(ChatColor.GREEN + "Editing quest: " + questFile.getFileName());
+            }
+            case 13 -> {
+                player.closeInventory();
+                manager.beginChatInput(playerId, QuestGuiManager.ChatAction.RENAME, questFile);
+                player.sendMessage(ChatColor.YELLOW + "Enter a new file name (or type 'cancel').");
+            }
+            case 14 -> manager.openTaskMenu(player, questFile, inventory, slot);
+            case 15 -> player.openInventory(manager.createDeleteConfirmMenu(questFile));
+            case 16 -> manager.openHistory(player, questFile, inventory, slot);
+            case 22 -> {
+                String guild = manager.getGuildForQuest(questFile);
+                player.openInventory(manager.createGuildQuestMenu(playerId, guild, manager.getCurrentPage(playerId)));
+            }
+            default -> {
+            }
         }
+    }
 
+    private void handleDeleteMenuClick(Player player, QuestMenu.DeleteConfirm menu, Inventory inventory, int slot) {
+        Path questFile = menu.questFile;
+        if (slot == 11) {
+            manager.getFileExecutor().submit(player, inventory, slot, () -> {
+                manager.deleteQuestFile(questFile);
+                return questFile;
+            }, deleted -> {
+                player.sendMessage(ChatColor.RED + "Quest deleted: " + deleted.getFileName()
+                        + ChatColor.GRAY + " (restore with /questgui history "
+                        + manager.getQuestsDirectory().relativize(deleted) + ")");
+                String guild = manager.getGuildForQuest(deleted);
+                player.openInventory(manager.createGuildQuestMenu(player.getUniqueId(), guild, manager.getCurrentPage(player.getUniqueId())));
+            }, "Failed to delete quest: ");
+            return;
+        }
+        if (slot == 15) {
+            player.openInventory(manager.createQuestMenu(player.getUniqueId(), questFile));
+        }
+    }
+
+    private void handleTaskMenuClick(Player player, QuestMenu.TaskMenu menu, InventoryClickEvent event) {
+        UUID playerId = player.getUniqueId();
+        Path questFile = menu.questFile;
         int slot = event.getSlot();
         if (slot == 45) {
-            try {
+            manager.getFileExecutor().submit(player, event.getInventory(), slot, () -> {
                 manager.addTask(questFile);
-                player.openInventory(manager.createTaskMenu(playerId, questFile));
+                return manager.loadQuestModel(questFile);
+            }, model -> {
+                player.openInventory(manager.createTaskMenu(playerId, questFile, model));
                 player.sendMessage(ChatColor.GREEN + "Added a new task.");
-            } catch (IOException e) {
-                player.sendMessage(ChatColor.RED + "Failed to add task: " + e.getMessage());
-            }
+            }, "Failed to add task: ");
             return;
         }
         if (slot == 49) {
             player.openInventory(manager.createQuestMenu(playerId, questFile));
             return;
         }
+        if (slot == 52) {
+            player.openInventory(manager.createTaskMenu(playerId, questFile, menu.model, menu.page - 1));
+            return;
+        }
+        if (slot == 53) {
+            player.openInventory(manager.createTaskMenu(playerId, questFile, menu.model, menu.page + 1));
+            return;
+        }
 
-        Map<Integer, String> slots = manager.getTaskMenuSlots(playerId);
-        if (!slots.containsKey(slot)) {
+        String taskKey = menu.taskSlots.get(slot);
+        if (taskKey == null) {
             return;
         }
-        String taskKey = slots.get(slot);
         if (event.isShiftClick()) {
             player.closeInventory();
             manager.beginTaskChatInput(playerId, QuestGuiManager.ChatAction.SET_TASK_AMOUNT, questFile, taskKey);
@@ -292,90 +382,107 @@ public class QuestGuiListener implements Listener {
             player.openInventory(manager.createTaskActionMenu(playerId, questFile, taskKey));
             return;
         }
-        QuestGuiManager.QuestDifficulty difficulty = manager.getTaskDifficulty(questFile, taskKey);
-        QuestGuiManager.QuestDifficulty next = difficulty.next();
-        try {
+        manager.getFileExecutor().submit(player, event.getInventory(), slot, () -> {
+            QuestGuiManager.QuestDifficulty next = manager.getTaskDifficulty(questFile, taskKey).next();
             manager.updateTaskDifficulty(questFile, taskKey, next);
-            player.openInventory(manager.createTaskMenu(playerId, questFile));
+            return manager.loadQuestModel(questFile);
+        }, model -> {
+            QuestModelCache.QuestTask task = model.task(taskKey);
+            QuestGuiManager.QuestDifficulty next = task != null ? task.difficulty() : QuestGuiManager.QuestDifficulty.EASY;
+            player.openInventory(manager.createTaskMenu(playerId, questFile, model));
             player.sendMessage(ChatColor.YELLOW + "Task " + taskKey + " difficulty set to " + next.getDisplayName() + ChatColor.YELLOW + ".");
-        } catch (IOException e) {
-            player.sendMessage(ChatColor.RED + "Failed to update task difficulty: " + e.getMessage());
-        }
+        }, "Failed to update task difficulty: ");
     }
 
-    private void handleTaskActionMenuClick(Player player, int slot, ItemStack clicked) {
+    private void handleTaskActionMenuClick(Player player, QuestMenu.TaskActionMenu menu, Inventory inventory, int slot) {
         UUID playerId = player.getUniqueId();
-        Path questFile = manager.getSelectedQuest(playerId);
-        String taskKey = manager.getSelectedTask(playerId);
-        if (questFile == null || taskKey == null) {
-            player.closeInventory();
-            return;
-        }
-
-        if (slot == 49 && clicked.getType() == Material.ARROW) {
-            player.openInventory(manager.createTaskMenu(playerId, questFile));
+        Path questFile = menu.questFile;
+        String taskKey = menu.taskKey;
+        if (slot == 49) {
+            manager.openTaskMenu(player, questFile, inventory, slot);
             return;
         }
 
-        Map<Integer, String> slots = manager.getTaskActionMenuSlots(playerId);
-        if (!slots.containsKey(slot)) {
+        String action = menu.actionSlots.get(slot);
+        if (action == null) {
             return;
         }
-        String action = slots.get(slot);
-        try {
+        manager.getFileExecutor().submit(player, inventory, slot, () -> {
             manager.updateTaskAction(questFile, taskKey, action);
-            player.openInventory(manager.createTaskMenu(playerId, questFile));
+            return manager.loadQuestModel(questFile);
+        }, model -> {
+            player.openInventory(manager.createTaskMenu(playerId, questFile, model));
             player.sendMessage(ChatColor.GREEN + "Task " + taskKey + " action set to " + action + ".");
-        } catch (IOException e) {
-            player.sendMessage(ChatColor.RED + "Failed to update task action: " + e.getMessage());
-        }
+        }, "Failed to update task action: ");
     }
 
-    private void handleCreate(Player player, String fileName) throws IOException {
-        String guild = manager.getSelectedGuild(player.getUniqueId());
-        Path targetDir = manager.resolveQuestDirectory(guild);
-        Path newFile = resolveQuestFile(targetDir, fileName);
-        if (Files.exists(newFile)) {
-            player.sendMessage(ChatColor.RED + "That quest file already exists.");
-            manager.beginChatInput(player.getUniqueId(), QuestGuiManager.ChatAction.CREATE, null);
-            player.sendMessage(ChatColor.YELLOW + "Enter a different file name (or type 'cancel').");
-            return;
-        }
-        Files.createDirectories(targetDir);
-        Files.writeString(newFile, defaultTemplate(), StandardCharsets.UTF_8);
-        player.sendMessage(ChatColor.GREEN + "Quest created: " + newFile.getFileName());
-        manager.openEditor(player, newFile);
+    private void handleCreate(Player player, String guild, String fileName) {
+        manager.getFileExecutor().submit(player, null, -1, () -> {
+            Path targetDir = manager.resolveQuestDirectory(guild);
+            Path newFile = resolveQuestFile(targetDir, fileName);
+            if (Files.exists(newFile)) {
+                promptDifferentName(player, QuestGuiManager.ChatAction.CREATE, null);
+                return null;
+            }
+            manager.createQuestFile(newFile, defaultTemplate());
+            return newFile;
+        }, newFile -> {
+            if (newFile == null) {
+                return;
+            }
+            player.sendMessage(ChatColor.GREEN + "Quest created: " + newFile.getFileName());
+            manager.openEditor(player, newFile);
+        }, "Failed to update quest file: ");
     }
 
-    private void handleRename(Player player, Path questFile, String newName) throws IOException {
+    private void handleRename(Player player, Path questFile, String newName) {
         Path targetDir = questFile.getParent() != null ? questFile.getParent() : manager.getQuestsDirectory();
         Path newFile = resolveQuestFile(targetDir, newName);
-        if (Files.exists(newFile)) {
-            player.sendMessage(ChatColor.RED + "That quest file already exists.");
-            manager.beginChatInput(player.getUniqueId(), QuestGuiManager.ChatAction.RENAME, questFile);
-            player.sendMessage(ChatColor.YELLOW + "Enter a different file name (or type 'cancel').");
-            return;
-        }
-        Files.move(questFile, newFile);
-        player.sendMessage(ChatColor.GREEN + "Quest renamed to: " + newFile.getFileName());
-        player.openInventory(manager.createQuestMenu(player.getUniqueId(), newFile));
+        manager.getFileExecutor().submit(player, null, -1, () -> {
+            if (Files.exists(newFile)) {
+                promptDifferentName(player, QuestGuiManager.ChatAction.RENAME, questFile);
+                return false;
+            }
+            manager.moveQuestFile(questFile, newFile);
+            return true;
+        }, renamed -> {
+            if (!renamed) {
+                return;
+            }
+            player.sendMessage(ChatColor.GREEN + "Quest renamed to: " + newFile.getFileName());
+            player.openInventory(manager.createQuestMenu(player.getUniqueId(), newFile));
+        }, "Failed to update quest file: ");
     }
 
-    private void handleDuplicate(Player player, Path questFile, String newName) throws IOException {
+    private void handleDuplicate(Player player, Path questFile, String newName) {
         Path targetDir = questFile.getParent() != null ? questFile.getParent() : manager.getQuestsDirectory();
         Path newFile = resolveQuestFile(targetDir, newName);
-        if (Files.exists(newFile)) {
-            player.sendMessage(ChatColor.RED + "That quest file already exists.");
-            manager.beginChatInput(player.getUniqueId(), QuestGuiManager.ChatAction.DUPLICATE, questFile);
-            player.sendMessage(ChatColor.YELLOW + "Enter a different file name (or type 'cancel').");
-            return;
-        }
-        Files.copy(questFile, newFile);
-        player.sendMessage(ChatColor.GREEN + "Quest duplicated: " + newFile.getFileName());
-        player.openInventory(manager.createQuestMenu(player.getUniqueId(), newFile));
+        manager.getFileExecutor().submit(player, null, -1, () -> {
+            if (Files.exists(newFile)) {
+                promptDifferentName(player, QuestGuiManager.ChatAction.DUPLICATE, questFile);
+                return false;
+            }
+            manager.copyQuestFile(questFile, newFile);
+            return true;
+        }, copied -> {
+            if (!copied) {
+                return;
+            }
+            player.sendMessage(ChatColor.GREEN + "Quest duplicated: " + newFile.getFileName());
+            player.openInventory(manager.createQuestMenu(player.getUniqueId(), newFile));
+        }, "Failed to update quest file: ");
+    }
+
+    /**
+     * Thread-safe; called from the I/O thread when the chosen name is taken.
+     */
+    private void promptDifferentName(Player player, QuestGuiManager.ChatAction action, Path questFile) {
+        player.sendMessage(ChatColor.RED + "That quest file already exists.");
+        manager.beginChatInput(player.getUniqueId(), action, questFile);
+        player.sendMessage(ChatColor.YELLOW + "Enter a different file name (or type 'cancel').");
     }
 
-    private void handleTaskAction(Player player, Path questFile, String taskKey, String action) throws IOException {
+    private void handleTaskAction(Player player, Path questFile, String taskKey, String action) {
         if (questFile == null || taskKey == null) {
             player.sendMessage(ChatColor.RED + "No task selected.");
             return;
@@ -387,12 +494,16 @@ public class QuestGuiListener implements Listener {
             player.sendMessage(ChatColor.YELLOW + "Enter action for task " + taskKey + " (or type 'cancel').");
             return;
         }
-        manager.updateTaskAction(questFile, taskKey, normalized);
-        player.openInventory(manager.createTaskMenu(player.getUniqueId(), questFile));
-        player.sendMessage(ChatColor.GREEN + "Task " + taskKey + " action set to " + normalized + ".");
+        manager.getFileExecutor().submit(player, null, -1, () -> {
+            manager.updateTaskAction(questFile, taskKey, normalized);
+            return manager.loadQuestModel(questFile);
+        }, model -> {
+            player.openInventory(manager.createTaskMenu(player.getUniqueId(), questFile, model));
+            player.sendMessage(ChatColor.GREEN + "Task " + taskKey + " action set to " + normalized + ".");
+        }, "Failed to update task action: ");
     }
 
-    private void handleTaskAmount(Player player, Path questFile, String taskKey, String amountInput) throws IOException {
+    private void handleTaskAmount(Player player, Path questFile, String taskKey, String amountInput) {
         if (questFile == null || taskKey == null) {
             player.sendMessage(ChatColor.RED + "No task selected.");
             return;
@@ -412,9 +523,82 @@ public class QuestGuiListener implements Listener {
             player.sendMessage(ChatColor.YELLOW + "Enter required amount for task " + taskKey + " (or type 'cancel').");
             return;
         }
-        manager.updateTaskAmount(questFile, taskKey, amount);
-        player.openInventory(manager.createTaskMenu(player.getUniqueId(), questFile));
-        player.sendMessage(ChatColor.GREEN + "Task " + taskKey + " amount set to " + amount + ".");
+        int required = amount;
+        manager.getFileExecutor().submit(player, null, -1, () -> {
+            manager.updateTaskAmount(questFile, taskKey, required);
+            return manager.loadQuestModel(questFile);
+        }, model -> {
+            player.openInventory(manager.createTaskMenu(player.getUniqueId(), questFile, model));
+            player.sendMessage(ChatColor.GREEN + "Task " + taskKey + " amount set to " + required + ".");
+        }, "Failed to update task amount: ");
+    }
+
+    private void handleSearch(Player player, String query) {
+        List<QuestCatalog.QuestFile> results = manager.searchQuests(query);
+        if (results.isEmpty()) {
+            player.sendMessage(ChatColor.YELLOW + "No quests match \"" + query + "\".");
+            return;
+        }
+        manager.getPlugin().getTaskScheduler().runForEntity(player,
+                () -> player.openInventory(manager.createSearchMenu(query, results, 0)));
+    }
+
+    private void handleBulkFilter(Player player, String taskType) {
+        QuestMenu.BulkEditMenu menu = manager.getBulkEdit(player.getUniqueId());
+        if (menu == null) {
+            player.sendMessage(ChatColor.RED + "No bulk edit open.");
+            return;
+        }
+        String normalized = taskType.trim().toUpperCase(Locale.ENGLISH);
+        menu.taskType = normalized.isEmpty() || normalized.equals("ANY") ? null : normalized;
+        manager.getPlugin().getTaskScheduler().runForEntity(player, () -> {
+            manager.renderBulkEdit(menu);
+            player.openInventory(menu.getInventory());
+        });
+    }
+
+    private void handleBulkAmount(Player player, String amountInput) {
+        QuestMenu.BulkEditMenu menu = manager.getBulkEdit(player.getUniqueId());
+        if (menu == null) {
+            player.sendMessage(ChatColor.RED + "No bulk edit open.");
+            return;
+        }
+        int amount;
+        try {
+            amount = Integer.parseInt(amountInput.trim());
+        } catch (NumberFormatException e) {
+            amount = 0;
+        }
+        if (amount < 1) {
+            player.sendMessage(ChatColor.RED + "Amount must be a number of at least 1.");
+            manager.beginChatInput(player.getUniqueId(), QuestGuiManager.ChatAction.BULK_AMOUNT, null);
+            player.sendMessage(ChatColor.YELLOW + "Enter required amount for every matching task (or type 'cancel').");
+            return;
+        }
+        int required = amount;
+        manager.getPlugin().getTaskScheduler().runForEntity(player, () -> {
+            player.openInventory(menu.getInventory());
+            manager.startBulkEdit(player, menu, "amount to " + required, task -> task.set("args.amount", required));
+        });
+    }
+
+    private void handleBulkAction(Player player, String action) {
+        QuestMenu.BulkEditMenu menu = manager.getBulkEdit(player.getUniqueId());
+        if (menu == null) {
+            player.sendMessage(ChatColor.RED + "No bulk edit open.");
+            return;
+        }
+        String normalized = action.trim().toUpperCase(Locale.ENGLISH);
+        if (normalized.isEmpty()) {
+            player.sendMessage(ChatColor.RED + "Action cannot be empty.");
+            manager.beginChatInput(player.getUniqueId(), QuestGuiManager.ChatAction.BULK_ACTION, null);
+            player.sendMessage(ChatColor.YELLOW + "Enter action for every matching task (or type 'cancel').");
+            return;
+        }
+        manager.getPlugin().getTaskScheduler().runForEntity(player, () -> {
+            player.openInventory(menu.getInventory());
+            manager.startBulkEdit(player, menu, "action to " + normalized, task -> task.set("task", normalized));
+        });
     }
 
     private Path resolveQuestFile(Path questsDir, String fileName) {
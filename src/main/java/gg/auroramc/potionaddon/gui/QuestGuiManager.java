@@ -1,15 +1,20 @@
 package gg.auroramc.potionaddon.gui;
 
 import gg.auroramc.potionaddon.PotionConsumeAddon;
+import gg.auroramc.potionaddon.metrics.AddonMetrics.Operation;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
+import org.bukkit.Registry;
+import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.BookMeta;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.potion.PotionType;
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.IOException;
@@ -21,14 +26,16 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public class QuestGuiManager {
     public static final String MAIN_TITLE = ChatColor.DARK_AQUA + "AuroraQuests: Guilds";
@@ -37,12 +44,20 @@ public class QuestGuiManager {
     public static final String TASKS_TITLE_PREFIX = ChatColor.DARK_PURPLE + "Tasks: ";
     public static final String DELETE_TITLE_PREFIX = ChatColor.DARK_RED + "Delete quest: ";
     public static final String TASK_ACTION_TITLE_PREFIX = ChatColor.DARK_BLUE + "Task action: ";
+    public static final String SEARCH_TITLE_PREFIX = ChatColor.DARK_AQUA + "Search: ";
+    public static final String BULK_TITLE_PREFIX = ChatColor.GOLD + "Bulk edit: ";
+    public static final String LINT_TITLE_PREFIX = ChatColor.DARK_RED + "Lint: ";
+    public static final String HISTORY_TITLE_PREFIX = ChatColor.GOLD + "History: ";
 
     private static final int QUESTS_PER_PAGE = 45;
     private static final int GUILDS_PER_PAGE = 45;
     private static final int TASKS_PER_PAGE = 45;
+    private static final int ISSUES_PER_PAGE = 45;
+    private static final int VERSIONS_PER_PAGE = 45;
     private static final DateTimeFormatter DATE_FORMATTER =
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm", Locale.ENGLISH).withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter LINT_LOG_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss", Locale.ENGLISH).withZone(ZoneId.systemDefault());
     private static final List<String> TASK_ACTIONS = List.of(
             "FISH",
             "BLOCK_SHEAR",
@@ -51,6 +66,7 @@ public class QuestGuiManager {
             "BREW",
             "RUN_COMMAND",
             "CONSUME",
+            "POTION_CONSUME",
             "CRAFT",
             "EARN_EXP",
             "FARM",
@@ -87,20 +103,25 @@ public class QuestGuiManager {
             "TRAVEL",
             "PLACEHOLDER"
     );
+    private static final Map<Integer, String> TASK_ACTION_SLOTS = taskActionSlots();
+    private static final long SESSION_SWEEP_SECONDS = 60L;
+    // One-second ticks; prompts longer than a turn just wait more rounds.
+    private static final int CHAT_TIMEOUT_BUCKETS = 64;
 
     private final PotionConsumeAddon plugin;
     private final Path questsDirectory;
-    private final Map<UUID, Integer> currentGuildPage = new HashMap<>();
-    private final Map<UUID, Integer> currentQuestPage = new HashMap<>();
-    private final Map<UUID, Map<Integer, String>> guildMenuSlots = new HashMap<>();
-    private final Map<UUID, Map<Integer, Path>> guildQuestMenuSlots = new HashMap<>();
-    private final Map<UUID, Path> selectedQuest = new HashMap<>();
-    private final Map<UUID, String> selectedGuild = new HashMap<>();
-    private final Map<UUID, Map<Integer, String>> taskMenuSlots = new HashMap<>();
-    private final Map<UUID, Map<Integer, String>> taskActionMenuSlots = new HashMap<>();
-    private final Map<UUID, Path> editingQuest = new HashMap<>();
-    private final Map<UUID, PendingChatInput> pendingChatInputs = new HashMap<>();
-    private final Map<UUID, String> selectedTask = new HashMap<>();
+    private final QuestCatalog catalog;
+    private final QuestSearchIndex searchIndex;
+    private final QuestHistory history;
+    private final QuestModelCache questModels;
+    private final QuestFileExecutor fileExecutor;
+    private final QuestBulkEditor bulkEditor;
+    private final QuestLinter linter;
+    private final MenuItems menuItems = new MenuItems(TASK_ACTIONS);
+    private final Map<UUID, GuiSession> sessions = new ConcurrentHashMap<>();
+    private final TimerWheel<ChatPrompt> chatInputTimeouts = new TimerWheel<>(CHAT_TIMEOUT_BUCKETS);
+    private final long sessionIdleNanos;
+    private final long chatInputTimeoutSeconds;
 
     public QuestGuiManager(PotionConsumeAddon plugin) {
         this.plugin = plugin;
@@ -109,18 +130,41 @@ public class QuestGuiManager {
                 ? auroraQuests.getDataFolder().toPath().resolve("quest_pools")
                 : plugin.getDataFolder().toPath().resolve("quest_pools");
         ensureQuestsDirectory();
+        this.searchIndex = new QuestSearchIndex(plugin.getLogger());
+        this.catalog = new QuestCatalog(questsDirectory, this::resolveGuildName, searchIndex, plugin.getLogger());
+        catalog.start();
+        this.history = new QuestHistory(questsDirectory, plugin.getDataFolder().toPath().resolve("history"));
+        this.questModels = new QuestModelCache(plugin.getConfig().getLong("quest-editor.write-delay-millis", 750L),
+                history, catalog::refresh, plugin.getLogger());
+        this.bulkEditor = new QuestBulkEditor(questModels, plugin.getLogger());
+        Set<String> potionKeys = new HashSet<>();
+        for (PotionType type : Registry.POTION) {
+            potionKeys.add(type.getKey().asString());
+        }
+        this.linter = new QuestLinter(TASK_ACTIONS, potionKeys);
+        this.fileExecutor = new QuestFileExecutor(plugin.getTaskScheduler(), menuItems.get(MenuItems.Prototype.WORKING),
+                plugin.getLogger());
+        this.sessionIdleNanos = TimeUnit.MINUTES.toNanos(
+                Math.max(1L, plugin.getConfig().getLong("quest-editor.session-idle-minutes", 30L)));
+        this.chatInputTimeoutSeconds = Math.max(1L,
+                plugin.getConfig().getLong("quest-editor.chat-input-timeout-seconds", 60L));
+        plugin.getTaskScheduler().runAsyncTimer(this::expireChatInputs, 1L);
+        plugin.getTaskScheduler().runAsyncTimer(this::evictIdleSessions, SESSION_SWEEP_SECONDS);
     }
 
     public Inventory createMainMenu(UUID playerId, int page) {
-        Map<String, List<Path>> grouped = groupQuestsByGuild();
+        long start = System.nanoTime();
+        Map<String, List<QuestCatalog.QuestFile>> grouped = catalog.snapshot();
         List<String> guilds = new ArrayList<>(grouped.keySet());
         Collections.sort(guilds, String.CASE_INSENSITIVE_ORDER);
         int totalPages = Math.max(1, (int) Math.ceil(guilds.size() / (double) GUILDS_PER_PAGE));
         int safePage = Math.min(Math.max(page, 0), totalPages - 1);
-        currentGuildPage.put(playerId, safePage);
+        GuiSession session = session(playerId);
+        session.guildPage = safePage;
 
-        Inventory inventory = Bukkit.createInventory(null, 54, MAIN_TITLE);
-        Map<Integer, String> slotMap = new HashMap<>();
+        QuestMenu.MainMenu menu = new QuestMenu.MainMenu(safePage);
+        Inventory inventory = menu.open(54, MAIN_TITLE);
+        Map<Integer, String> slotMap = menu.guildSlots;
 
         int startIndex = safePage * GUILDS_PER_PAGE;
         int endIndex = Math.min(startIndex + GUILDS_PER_PAGE, guilds.size());
@@ -139,45 +183,313 @@ public class QuestGuiManager {
             slotMap.put(slot, guild);
             slot++;
         }
-        guildMenuSlots.put(playerId, slotMap);
 
-        inventory.setItem(46, createMenuItem(Material.SUNFLOWER, ChatColor.YELLOW + "Reload list",
-                Collections.singletonList(ChatColor.GRAY + "Refresh quest files")));
+        inventory.setItem(46, menuItems.get(MenuItems.Prototype.RELOAD));
+        inventory.setItem(49, menuItems.get(MenuItems.Prototype.SEARCH));
 
         boolean hasPrev = safePage > 0;
         boolean hasNext = safePage < totalPages - 1;
 
-        inventory.setItem(52, createMenuItem(hasPrev ? Material.ARROW : Material.GRAY_DYE,
-                ChatColor.AQUA + "Previous page",
-                Collections.singletonList(ChatColor.GRAY + "Page " + (safePage + 1) + "/" + totalPages)));
-        inventory.setItem(53, createMenuItem(hasNext ? Material.ARROW : Material.GRAY_DYE,
-                ChatColor.AQUA + "Next page",
-                Collections.singletonList(ChatColor.GRAY + "Page " + (safePage + 1) + "/" + totalPages)));
+        inventory.setItem(52, menuItems.previousPage(hasPrev, safePage, totalPages));
+        inventory.setItem(53, menuItems.nextPage(hasNext, safePage, totalPages));
 
+        plugin.getMetrics().recordDuration(Operation.MAIN_MENU, start);
         return inventory;
     }
 
     public Inventory createGuildQuestMenu(UUID playerId, String guild, int page) {
-        selectedGuild.put(playerId, guild);
-        List<Path> quests = groupQuestsByGuild().getOrDefault(guild, Collections.emptyList());
+        long start = System.nanoTime();
+        GuiSession session = session(playerId);
+        if (guild != null) {
+            session.selectedGuild = guild;
+        }
+        List<QuestCatalog.QuestFile> quests = catalog.snapshot().getOrDefault(guild, Collections.emptyList());
         int totalPages = Math.max(1, (int) Math.ceil(quests.size() / (double) QUESTS_PER_PAGE));
         int safePage = Math.min(Math.max(page, 0), totalPages - 1);
-        currentQuestPage.put(playerId, safePage);
+        session.questPage = safePage;
+
+        QuestMenu.GuildMenu menu = new QuestMenu.GuildMenu(guild, safePage);
+        Inventory inventory = menu.open(54, GUILD_TITLE_PREFIX + ChatColor.WHITE + guild);
+        Map<Integer, Path> slotMap = menu.questSlots;
+
+        placeQuestItems(inventory, slotMap, quests, safePage);
+
+        inventory.setItem(45, menuItems.get(MenuItems.Prototype.CREATE_QUEST));
+        inventory.setItem(46, menuItems.get(MenuItems.Prototype.RELOAD));
+        inventory.setItem(47, menuItems.get(MenuItems.Prototype.BULK_EDIT));
+        inventory.setItem(48, menuItems.get(MenuItems.Prototype.BACK_TO_GUILDS));
+
+        boolean hasPrev = safePage > 0;
+        boolean hasNext = safePage < totalPages - 1;
+
+        inventory.setItem(52, menuItems.previousPage(hasPrev, safePage, totalPages));
+        inventory.setItem(53, menuItems.nextPage(hasNext, safePage, totalPages));
+
+        plugin.getMetrics().recordDuration(Operation.GUILD_MENU, start);
+        return inventory;
+    }
+
+    /**
+     * Find quests by file name, quest name, task key, task type or {@code args.types} entry.
+     *
+     * @return matching quests sorted by file name
+     */
+    public List<QuestCatalog.QuestFile> searchQuests(String query) {
+        long start = System.nanoTime();
+        List<QuestCatalog.QuestFile> results = new ArrayList<>();
+        for (Path path : searchIndex.search(query)) {
+            QuestCatalog.QuestFile file = catalog.file(path);
+            if (file != null) {
+                results.add(file);
+            }
+        }
+        plugin.getMetrics().recordDuration(Operation.QUEST_SEARCH, start);
+        return results;
+    }
+
+    public Inventory createSearchMenu(String query, List<QuestCatalog.QuestFile> results, int page) {
+        int totalPages = Math.max(1, (int) Math.ceil(results.size() / (double) QUESTS_PER_PAGE));
+        int safePage = Math.min(Math.max(page, 0), totalPages - 1);
+
+        QuestMenu.SearchMenu menu = new QuestMenu.SearchMenu(query, results, safePage);
+        Inventory inventory = menu.open(54, SEARCH_TITLE_PREFIX + ChatColor.WHITE + query);
+        placeQuestItems(inventory, menu.questSlots, results, safePage);
+
+        inventory.setItem(48, menuItems.get(MenuItems.Prototype.BACK_TO_GUILDS));
+        inventory.setItem(49, menuItems.get(MenuItems.Prototype.BULK_EDIT));
+
+        boolean hasPrev = safePage > 0;
+        boolean hasNext = safePage < totalPages - 1;
+
+        inventory.setItem(52, menuItems.previousPage(hasPrev, safePage, totalPages));
+        inventory.setItem(53, menuItems.nextPage(hasNext, safePage, totalPages));
+        return inventory;
+    }
+
+    /**
+     * Open a bulk edit over every quest listed by a guild or search menu.
+     */
+    public Inventory createBulkEditMenu(UUID playerId, QuestMenu previous) {
+        String scope;
+        List<QuestCatalog.QuestFile> quests;
+        switch (previous) {
+            case QuestMenu.GuildMenu guild -> {
+                scope = guild.guild;
+                quests = catalog.snapshot().getOrDefault(guild.guild, Collections.emptyList());
+            }
+            case QuestMenu.SearchMenu search -> {
+                scope = "\"" + search.query + "\"";
+                quests = search.results;
+            }
+            default -> throw new IllegalArgumentException("Bulk edits start from a quest list");
+        }
+        List<Path> paths = new ArrayList<>(quests.size());
+        for (QuestCatalog.QuestFile quest : quests) {
+            paths.add(quest.path());
+        }
+        QuestMenu.BulkEditMenu menu = new QuestMenu.BulkEditMenu(scope, List.copyOf(paths), previous);
+        Inventory inventory = menu.open(36, BULK_TITLE_PREFIX + ChatColor.WHITE + scope);
+        inventory.setItem(12, menuItems.get(MenuItems.Prototype.BULK_AMOUNT));
+        inventory.setItem(14, menuItems.get(MenuItems.Prototype.BULK_ACTION));
+        int slot = 20;
+        for (QuestDifficulty difficulty : QuestDifficulty.values()) {
+            inventory.setItem(slot, MenuItems.create(difficulty.getMaterial(),
+                    ChatColor.WHITE + "Set difficulty: " + difficulty.getDisplayName(),
+                    Collections.singletonList(ChatColor.GRAY + "For every matching task")));
+            slot += 2;
+        }
+        inventory.setItem(31, menuItems.get(MenuItems.Prototype.BACK_TO_LIST));
+        renderBulkEdit(menu);
+        session(playerId).bulkEdit = menu;
+        return inventory;
+    }
+
+    /**
+     * Redraw the filter and status items; call on the player's thread.
+     */
+    public void renderBulkEdit(QuestMenu.BulkEditMenu menu) {
+        Inventory inventory = menu.getInventory();
+        String taskType = menu.taskType;
+        inventory.setItem(10, MenuItems.create(Material.HOPPER,
+                ChatColor.YELLOW + "Task type: " + ChatColor.WHITE + (taskType != null ? taskType : "any"),
+                Collections.singletonList(ChatColor.GRAY + "Click to filter by task type")));
+
+        List<String> lore = new ArrayList<>();
+        lore.add(ChatColor.GRAY + "Quests: " + menu.quests.size());
+        QuestBulkEditor.Progress progress = menu.progress;
+        QuestBulkEditor.Result result = menu.result;
+        if (menu.running.get() && progress != null) {
+            lore.add(ChatColor.YELLOW + "Working: " + progress.done() + "/" + progress.total());
+            if (progress.failed() > 0) {
+                lore.add(ChatColor.RED + "Failed: " + progress.failed());
+            }
+        } else if (menu.running.get()) {
+            lore.add(ChatColor.YELLOW + "Starting…");
+        } else if (result != null) {
+            lore.add(ChatColor.GREEN + "Changed " + result.changedTasks() + " tasks in " + result.changedQuests()
+                    + " quests");
+            if (!result.failures().isEmpty()) {
+                lore.add(ChatColor.RED + "Failed: " + result.failures().size());
+            }
+        }
+        inventory.setItem(16, MenuItems.create(menu.running.get() ? Material.CLOCK : Material.BOOK,
+                ChatColor.GOLD + "Status", lore));
+    }
+
+    /**
+     * Apply a change to every matching task of the menu's quests off the server thread. Progress
+     * is shown in the status slot and the result is reported in chat. Call on the player's thread.
+     *
+     * @param description what is being set, for the report, e.g. "amount to 3"
+     */
+    public void startBulkEdit(Player player, QuestMenu.BulkEditMenu menu, String description,
+                              Consumer<ConfigurationSection> change) {
+        if (!menu.running.compareAndSet(false, true)) {
+            player.sendMessage(ChatColor.RED + "A bulk edit is already running for this list.");
+            return;
+        }
+        menu.progress = null;
+        menu.result = null;
+        renderBulkEdit(menu);
+        String taskType = menu.taskType;
+        bulkEditor.apply(menu.quests, taskType, "bulk " + description, change, progress -> {
+            menu.progress = progress;
+            // One redraw in flight at a time; it shows whatever progress is newest when it runs.
+            if (menu.statusQueued.compareAndSet(false, true)) {
+                plugin.getTaskScheduler().runForEntity(player, () -> {
+                    menu.statusQueued.set(false);
+                    renderBulkEdit(menu);
+                });
+            }
+        }).thenAccept(result -> plugin.getTaskScheduler().runForEntity(player, () -> {
+            menu.result = result;
+            menu.running.set(false);
+            renderBulkEdit(menu);
+            String tasks = taskType != null ? taskType + " tasks" : "tasks";
+            player.sendMessage(ChatColor.GREEN + "Bulk edit set " + description + " on " + result.changedTasks()
+                    + " " + tasks + " in " + result.changedQuests() + " of " + result.quests() + " quests.");
+            if (!result.failures().isEmpty()) {
+                player.sendMessage(ChatColor.RED + "" + result.failures().size() + " quests could not be changed:");
+                result.failures().stream().limit(5)
+                        .forEach(failure -> player.sendMessage(ChatColor.RED + " - " + failure));
+                if (result.failures().size() > 5) {
+                    player.sendMessage(ChatColor.RED + " … see the console for the rest.");
+                }
+            }
+        }));
+    }
+
+    /**
+     * Check every quest, or a guild's quests, off the server thread; the result opens as a lint menu
+     * and is written to a log file under the plugin's {@code lint} folder.
+     *
+     * @param guild the guild to check, or {@code null} for every guild
+     * @return {@code false} if the guild has no quests
+     */
+    public boolean lintQuests(Player player, String guild) {
+        List<Path> questFiles = new ArrayList<>();
+        for (Map.Entry<String, List<QuestCatalog.QuestFile>> entry : catalog.snapshot().entrySet()) {
+            if (guild == null || entry.getKey().equalsIgnoreCase(guild)) {
+                for (QuestCatalog.QuestFile quest : entry.getValue()) {
+                    questFiles.add(quest.path());
+                }
+            }
+        }
+        if (questFiles.isEmpty()) {
+            return false;
+        }
+        String scope = guild != null ? guild : "all guilds";
+        linter.lint(questFiles).whenComplete((report, error) -> {
+            if (error != null) {
+                plugin.getLogger().warning("Quest lint failed: " + error);
+                plugin.getTaskScheduler().runForEntity(player,
+                        () -> player.sendMessage(ChatColor.RED + "Quest lint failed: " + error.getMessage()));
+                return;
+            }
+            Path logFile = writeLintLog(scope, report);
+            plugin.getTaskScheduler().runForEntity(player, () -> {
+                player.sendMessage(String.format(Locale.ENGLISH, "%sChecked %d quests in %d ms: %d issues in %d files.",
+                        report.issues().isEmpty() ? ChatColor.GREEN : ChatColor.YELLOW, report.files(),
+                        TimeUnit.NANOSECONDS.toMillis(report.nanos()), report.issues().size(),
+                        report.filesWithIssues()));
+                if (logFile != null) {
+                    player.sendMessage(ChatColor.GRAY + "Report written to " + plugin.getDataFolder().toPath()
+                            .relativize(logFile));
+                }
+                player.openInventory(createLintMenu(scope, report, 0));
+            });
+        });
+        return true;
+    }
+
+    public Inventory createLintMenu(String scope, QuestLinter.Report report, int page) {
+        List<QuestLinter.Issue> issues = report.issues();
+        int totalPages = Math.max(1, (int) Math.ceil(issues.size() / (double) ISSUES_PER_PAGE));
+        int safePage = Math.min(Math.max(page, 0), totalPages - 1);
+
+        QuestMenu.LintMenu menu = new QuestMenu.LintMenu(scope, report, safePage);
+        Inventory inventory = menu.open(54, LINT_TITLE_PREFIX + ChatColor.WHITE + scope);
+        if (issues.isEmpty()) {
+            inventory.setItem(22, menuItems.get(MenuItems.Prototype.NO_ISSUES));
+        }
+        int startIndex = safePage * ISSUES_PER_PAGE;
+        int endIndex = Math.min(startIndex + ISSUES_PER_PAGE, issues.size());
+        int slot = 0;
+        for (int i = startIndex; i < endIndex; i++) {
+            QuestLinter.Issue issue = issues.get(i);
+            List<String> lore = new ArrayList<>();
+            lore.add(ChatColor.GRAY + questsDirectory.relativize(issue.file()).toString());
+            if (issue.task() != null) {
+                lore.add(ChatColor.GRAY + "Task: " + issue.task());
+            }
+            lore.add(ChatColor.YELLOW + issue.message());
+            lore.add(ChatColor.YELLOW + "Click to manage");
+            inventory.setItem(slot, MenuItems.create(Material.BARRIER,
+                    ChatColor.RED + issue.file().getFileName().toString(), lore));
+            menu.issueSlots.put(slot, issue.file());
+            slot++;
+        }
+
+        inventory.setItem(48, menuItems.get(MenuItems.Prototype.BACK_TO_GUILDS));
+
+        boolean hasPrev = safePage > 0;
+        boolean hasNext = safePage < totalPages - 1;
 
-        Inventory inventory = Bukkit.createInventory(null, 54, GUILD_TITLE_PREFIX + ChatColor.WHITE + guild);
-        Map<Integer, Path> slotMap = new HashMap<>();
+        inventory.setItem(52, menuItems.previousPage(hasPrev, safePage, totalPages));
+        inventory.setItem(53, menuItems.nextPage(hasNext, safePage, totalPages));
+        return inventory;
+    }
+
+    public QuestMenu.BulkEditMenu getBulkEdit(UUID playerId) {
+        GuiSession session = find(playerId);
+        return session != null ? session.bulkEdit : null;
+    }
+
+    /**
+     * @return the guild or search menu the bulk edit was opened from, redrawn with current files
+     */
+    public Inventory createBulkEditReturnMenu(UUID playerId, QuestMenu.BulkEditMenu menu) {
+        return switch (menu.previous) {
+            case QuestMenu.GuildMenu guild -> createGuildQuestMenu(playerId, guild.guild, guild.page);
+            case QuestMenu.SearchMenu search -> createSearchMenu(search.query, search.results, search.page);
+            default -> createMainMenu(playerId, getCurrentGuildPage(playerId));
+        };
+    }
 
-        int startIndex = safePage * QUESTS_PER_PAGE;
+    private void placeQuestItems(Inventory inventory, Map<Integer, Path> slotMap, List<QuestCatalog.QuestFile> quests,
+                                 int page) {
+        int startIndex = page * QUESTS_PER_PAGE;
         int endIndex = Math.min(startIndex + QUESTS_PER_PAGE, quests.size());
         int slot = 0;
         for (int i = startIndex; i < endIndex; i++) {
-            Path questFile = quests.get(i);
+            QuestCatalog.QuestFile quest = quests.get(i);
+            Path questFile = quest.path();
             ItemStack item = new ItemStack(Material.PAPER);
             ItemMeta meta = item.getItemMeta();
             meta.setDisplayName(ChatColor.GOLD + questFile.getFileName().toString());
             List<String> lore = new ArrayList<>();
-            lore.add(ChatColor.GRAY + "Size: " + readFileSize(questFile));
-            lore.add(ChatColor.GRAY + "Modified: " + readLastModified(questFile));
+            lore.add(ChatColor.GRAY + "Size: " + quest.size() + " bytes");
+            lore.add(ChatColor.GRAY + "Modified: " + DATE_FORMATTER.format(Instant.ofEpochMilli(quest.lastModified())));
             lore.add(ChatColor.YELLOW + "Click to manage");
             meta.setLore(lore);
             item.setItemMeta(meta);
@@ -185,67 +497,69 @@ public class QuestGuiManager {
             slotMap.put(slot, questFile);
             slot++;
         }
-        guildQuestMenuSlots.put(playerId, slotMap);
-
-        inventory.setItem(45, createMenuItem(Material.LIME_WOOL, ChatColor.GREEN + "Create quest",
-                Collections.singletonList(ChatColor.GRAY + "Create a new quest in this guild")));
-        inventory.setItem(46, createMenuItem(Material.SUNFLOWER, ChatColor.YELLOW + "Reload list",
-                Collections.singletonList(ChatColor.GRAY + "Refresh quest files")));
-        inventory.setItem(48, createMenuItem(Material.ARROW, ChatColor.GRAY + "Back to guilds",
-                Collections.singletonList(ChatColor.GRAY + "Return to guild list")));
-
-        boolean hasPrev = safePage > 0;
-        boolean hasNext = safePage < totalPages - 1;
-
-        inventory.setItem(52, createMenuItem(hasPrev ? Material.ARROW : Material.GRAY_DYE,
-                ChatColor.AQUA + "Previous page",
-                Collections.singletonList(ChatColor.GRAY + "Page " + (safePage + 1) + "/" + totalPages)));
-        inventory.setItem(53, createMenuItem(hasNext ? Material.ARROW : Material.GRAY_DYE,
-                ChatColor.AQUA + "Next page",
-                Collections.singletonList(ChatColor.GRAY + "Page " + (safePage + 1) + "/" + totalPages)));
-
-        return inventory;
     }
 
     public Inventory createQuestMenu(UUID playerId, Path questFile) {
-        selectedQuest.put(playerId, questFile);
-        Inventory inventory = Bukkit.createInventory(null, 27,
+        Inventory inventory = new QuestMenu.QuestActions(questFile).open(27,
                 QUEST_TITLE_PREFIX + ChatColor.WHITE + questFile.getFileName().toString());
 
-        inventory.setItem(10, createMenuItem(Material.PAPER, ChatColor.AQUA + "Duplicate quest",
-                Collections.singletonList(ChatColor.GRAY + "Copy to a new file")));
-        inventory.setItem(11, createMenuItem(Material.WRITABLE_BOOK, ChatColor.GREEN + "Edit quest",
-                Collections.singletonList(ChatColor.GRAY + "Open a book editor")));
-        inventory.setItem(13, createMenuItem(Material.NAME_TAG, ChatColor.YELLOW + "Rename quest",
-                Collections.singletonList(ChatColor.GRAY + "Change file name")));
-        inventory.setItem(14, createMenuItem(Material.NETHER_STAR, ChatColor.LIGHT_PURPLE + "Quest tasks",
-                Collections.singletonList(ChatColor.GRAY + "Manage tasks & difficulty")));
-        inventory.setItem(15, createMenuItem(Material.BARRIER, ChatColor.RED + "Delete quest",
-                Collections.singletonList(ChatColor.GRAY + "Remove this quest file")));
-        inventory.setItem(22, createMenuItem(Material.ARROW, ChatColor.GRAY + "Back",
-                Collections.singletonList(ChatColor.GRAY + "Return to list")));
+        inventory.setItem(10, menuItems.get(MenuItems.Prototype.DUPLICATE_QUEST));
+        inventory.setItem(11, menuItems.get(MenuItems.Prototype.EDIT_QUEST));
+        inventory.setItem(13, menuItems.get(MenuItems.Prototype.RENAME_QUEST));
+        inventory.setItem(14, menuItems.get(MenuItems.Prototype.QUEST_TASKS));
+        inventory.setItem(15, menuItems.get(MenuItems.Prototype.DELETE_QUEST));
+        inventory.setItem(16, menuItems.get(MenuItems.Prototype.QUEST_HISTORY));
+        inventory.setItem(22, menuItems.get(MenuItems.Prototype.BACK_TO_LIST));
 
         return inventory;
     }
 
-    public Inventory createTaskMenu(UUID playerId, Path questFile) {
-        selectedQuest.put(playerId, questFile);
-        List<String> taskKeys = getTaskKeys(questFile);
-        int totalPages = Math.max(1, (int) Math.ceil(taskKeys.size() / (double) TASKS_PER_PAGE));
-        int safePage = 0;
-        Inventory inventory = Bukkit.createInventory(null, 54,
-                TASKS_TITLE_PREFIX + ChatColor.WHITE + questFile.getFileName().toString());
+    /**
+     * Load the quest off the server thread and open its task menu once it is parsed.
+     *
+     * @param inventory the inventory to show the placeholder in while loading, or {@code null}
+     */
+    public void openTaskMenu(Player player, Path questFile, Inventory inventory, int slot) {
+        fileExecutor.submit(player, inventory, slot, () -> questModels.get(questFile),
+                model -> player.openInventory(createTaskMenu(player.getUniqueId(), questFile, model)),
+                "Failed to read quest file: ");
+    }
+
+    /**
+     * Open the task menu on the page the player last viewed for this quest.
+     */
+    Inventory createTaskMenu(UUID playerId, Path questFile, QuestModelCache.QuestModel model) {
+        GuiSession session = session(playerId);
+        int page = questFile.equals(session.taskQuest) ? session.taskPage : 0;
+        return createTaskMenu(playerId, questFile, model, page);
+    }
 
-        Map<Integer, String> slotMap = new HashMap<>();
+    /**
+     * Render one page of tasks from an already parsed quest; page flips pass the model of the open
+     * menu back in, so they never touch the disk. Only the visible page's items are built.
+     */
+    Inventory createTaskMenu(UUID playerId, Path questFile, QuestModelCache.QuestModel model, int page) {
+        long start = System.nanoTime();
+        List<QuestModelCache.QuestTask> tasks = model.tasks();
+        int totalPages = Math.max(1, (int) Math.ceil(tasks.size() / (double) TASKS_PER_PAGE));
+        int safePage = Math.min(Math.max(page, 0), totalPages - 1);
+        GuiSession session = session(playerId);
+        session.taskQuest = questFile;
+        session.taskPage = safePage;
+        QuestMenu.TaskMenu menu = new QuestMenu.TaskMenu(questFile, model, safePage);
+        Inventory inventory = menu.open(54, TASKS_TITLE_PREFIX + ChatColor.WHITE + questFile.getFileName().toString());
+
+        Map<Integer, String> slotMap = menu.taskSlots;
         int startIndex = safePage * TASKS_PER_PAGE;
-        int endIndex = Math.min(startIndex + TASKS_PER_PAGE, taskKeys.size());
+        int endIndex = Math.min(startIndex + TASKS_PER_PAGE, tasks.size());
         int slot = 0;
         for (int i = startIndex; i < endIndex; i++) {
-            String taskKey = taskKeys.get(i);
+            QuestModelCache.QuestTask task = tasks.get(i);
+            String taskKey = task.key();
             int taskNumber = i + 1;
-            QuestDifficulty difficulty = getTaskDifficulty(questFile, taskKey);
-            String action = getTaskAction(questFile, taskKey);
-            int amount = getTaskAmount(questFile, taskKey);
+            QuestDifficulty difficulty = task.difficulty();
+            String action = task.action();
+            int amount = task.amount();
             ItemStack item = new ItemStack(difficulty.getMaterial(), Math.min(64, taskNumber));
             ItemMeta meta = item.getItemMeta();
             meta.setDisplayName(ChatColor.AQUA + "Task #" + taskNumber + ChatColor.GRAY + " (" + taskKey + ")");
@@ -263,140 +577,348 @@ public class QuestGuiManager {
             slotMap.put(slot, taskKey);
             slot++;
         }
-        taskMenuSlots.put(playerId, slotMap);
 
-        inventory.setItem(45, createMenuItem(Material.LIME_WOOL, ChatColor.GREEN + "Add task",
-                Collections.singletonList(ChatColor.GRAY + "Create a new task with easy difficulty")));
-        inventory.setItem(49, createMenuItem(Material.ARROW, ChatColor.GRAY + "Back",
-                Collections.singletonList(ChatColor.GRAY + "Return to quest menu")));
+        inventory.setItem(45, menuItems.get(MenuItems.Prototype.ADD_TASK));
+        inventory.setItem(49, menuItems.get(MenuItems.Prototype.BACK_TO_QUEST));
+
+        boolean hasPrev = safePage > 0;
+        boolean hasNext = safePage < totalPages - 1;
+
+        inventory.setItem(52, menuItems.previousPage(hasPrev, safePage, totalPages));
+        inventory.setItem(53, menuItems.nextPage(hasNext, safePage, totalPages));
 
+        plugin.getMetrics().recordDuration(Operation.TASK_MENU, start);
         return inventory;
     }
 
     public Inventory createTaskActionMenu(UUID playerId, Path questFile, String taskKey) {
-        selectedQuest.put(playerId, questFile);
-        selectedTask.put(playerId, taskKey);
-        Inventory inventory = Bukkit.createInventory(null, 54,
+        Inventory inventory = new QuestMenu.TaskActionMenu(questFile, taskKey, TASK_ACTION_SLOTS).open(54,
                 TASK_ACTION_TITLE_PREFIX + ChatColor.WHITE + questFile.getFileName().toString());
-        Map<Integer, String> slotMap = new HashMap<>();
+        for (int slot : TASK_ACTION_SLOTS.keySet()) {
+            inventory.setItem(slot, menuItems.taskAction(slot));
+        }
+
+        inventory.setItem(49, menuItems.get(MenuItems.Prototype.BACK_TO_TASKS));
+
+        return inventory;
+    }
 
+    /**
+     * Read the quest's journal off the server thread and open its history menu.
+     *
+     * @param inventory the inventory to show the placeholder in while loading, or {@code null}
+     */
+    public void openHistory(Player player, Path questFile, Inventory inventory, int slot) {
+        // The placeholder only goes away on failure; put the button back if no menu replaces it.
+        ItemStack button = inventory != null && slot >= 0 && slot < inventory.getSize() ? inventory.getItem(slot) : null;
+        fileExecutor.submit(player, inventory, slot, () -> {
+            questModels.flush(questFile);
+            return history.versions(questFile);
+        }, versions -> {
+            if (versions.isEmpty()) {
+                if (button != null) {
+                    inventory.setItem(slot, button);
+                }
+                player.sendMessage(ChatColor.YELLOW + "No GUI edits of " + questFile.getFileName() + " were recorded yet.");
+                return;
+            }
+            player.openInventory(createHistoryMenu(questFile, versions, 0));
+        }, "Failed to read quest history: ");
+    }
+
+    /**
+     * List versions newest first.
+     */
+    public Inventory createHistoryMenu(Path questFile, List<QuestHistory.Version> versions, int page) {
+        int totalPages = Math.max(1, (int) Math.ceil(versions.size() / (double) VERSIONS_PER_PAGE));
+        int safePage = Math.min(Math.max(page, 0), totalPages - 1);
+
+        QuestMenu.HistoryMenu menu = new QuestMenu.HistoryMenu(questFile, versions, safePage);
+        Inventory inventory = menu.open(54, HISTORY_TITLE_PREFIX + ChatColor.WHITE + questFile.getFileName());
+        int startIndex = safePage * VERSIONS_PER_PAGE;
+        int endIndex = Math.min(startIndex + VERSIONS_PER_PAGE, versions.size());
         int slot = 0;
-        for (String action : TASK_ACTIONS) {
-            if (slot >= 45) {
-                break;
+        for (int i = startIndex; i < endIndex; i++) {
+            QuestHistory.Version version = versions.get(versions.size() - 1 - i);
+            List<String> lore = new ArrayList<>();
+            lore.add(ChatColor.GRAY + DATE_FORMATTER.format(Instant.ofEpochMilli(version.time())));
+            lore.add(ChatColor.WHITE + version.change());
+            if (version.present()) {
+                lore.add(ChatColor.GREEN + "+" + version.added() + ChatColor.RED + " -" + version.removed()
+                        + ChatColor.GRAY + " lines");
+                lore.add(ChatColor.YELLOW + "Click to preview, shift-click to restore");
+            } else {
+                lore.add(ChatColor.RED + "Quest deleted");
             }
-            ItemStack item = new ItemStack(Material.PAPER);
-            ItemMeta meta = item.getItemMeta();
-            meta.setDisplayName(ChatColor.AQUA + action);
-            meta.setLore(Collections.singletonList(ChatColor.YELLOW + "Click to set action"));
-            item.setItemMeta(meta);
-            inventory.setItem(slot, item);
-            slotMap.put(slot, action);
+            Material material = !version.present() ? Material.BARRIER
+                    : i == 0 ? Material.WRITABLE_BOOK : Material.PAPER;
+            inventory.setItem(slot, MenuItems.create(material,
+                    ChatColor.GOLD + "Version " + (version.index() + 1) + (i == 0 ? ChatColor.GRAY + " (latest)" : ""),
+                    lore));
+            menu.versionSlots.put(slot, version);
             slot++;
         }
-        taskActionMenuSlots.put(playerId, slotMap);
 
-        inventory.setItem(49, createMenuItem(Material.ARROW, ChatColor.GRAY + "Back",
-                Collections.singletonList(ChatColor.GRAY + "Return to tasks")));
+        inventory.setItem(49, menuItems.get(MenuItems.Prototype.BACK_TO_QUEST));
 
+        boolean hasPrev = safePage > 0;
+        boolean hasNext = safePage < totalPages - 1;
+
+        inventory.setItem(52, menuItems.previousPage(hasPrev, safePage, totalPages));
+        inventory.setItem(53, menuItems.nextPage(hasNext, safePage, totalPages));
         return inventory;
     }
 
+    /**
+     * Show the version as a read-only book; quests longer than one book show their first book.
+     */
+    public void previewVersion(Player player, Path questFile, QuestHistory.Version version, Inventory inventory,
+                               int slot) {
+        fileExecutor.submit(player, inventory, slot,
+                () -> QuestBook.of(questFile, history.content(questFile, version.index())), book -> {
+                    ItemStack item = new ItemStack(Material.WRITTEN_BOOK);
+                    BookMeta meta = (BookMeta) item.getItemMeta();
+                    meta.setTitle(questFile.getFileName() + " v" + (version.index() + 1));
+                    meta.setAuthor(player.getName());
+                    meta.setPages(book.currentPages());
+                    item.setItemMeta(meta);
+                    player.openBook(item);
+                }, "Failed to read quest history: ");
+    }
+
+    /**
+     * Write the version back over the quest, dropping task edits not saved yet, and reopen the
+     * history with the restore as its newest entry.
+     */
+    public void restoreVersion(Player player, Path questFile, QuestHistory.Version version, Inventory inventory,
+                               int slot) {
+        fileExecutor.submit(player, inventory, slot, () -> {
+            questModels.flush(questFile);
+            questModels.invalidate(questFile);
+            history.restore(questFile, version.index());
+            catalog.refresh(questFile);
+            return history.versions(questFile);
+        }, versions -> {
+            player.sendMessage(ChatColor.GREEN + "Restored version " + (version.index() + 1) + " of "
+                    + questFile.getFileName() + ".");
+            player.openInventory(createHistoryMenu(questFile, versions, 0));
+        }, "Failed to restore quest: ");
+    }
+
     public Inventory createDeleteConfirmMenu(Path questFile) {
-        Inventory inventory = Bukkit.createInventory(null, 27,
+        Inventory inventory = new QuestMenu.DeleteConfirm(questFile).open(27,
                 DELETE_TITLE_PREFIX + ChatColor.WHITE + questFile.getFileName().toString());
-        inventory.setItem(11, createMenuItem(Material.RED_WOOL, ChatColor.RED + "Confirm delete",
-                Collections.singletonList(ChatColor.GRAY + "This cannot be undone")));
-        inventory.setItem(15, createMenuItem(Material.GREEN_WOOL, ChatColor.GREEN + "Cancel",
-                Collections.singletonList(ChatColor.GRAY + "Keep the quest file")));
+        inventory.setItem(11, menuItems.get(MenuItems.Prototype.CONFIRM_DELETE));
+        inventory.setItem(15, menuItems.get(MenuItems.Prototype.CANCEL_DELETE));
         return inventory;
     }
 
-    public void openEditor(org.bukkit.entity.Player player, Path questFile) {
-        String content = readQuestContent(questFile);
-        List<String> pages = splitIntoPages(content, 240);
-        ItemStack book = new ItemStack(Material.WRITABLE_BOOK);
-        BookMeta meta = (BookMeta) book.getItemMeta();
-        meta.setTitle("Quest Editor");
-        meta.setAuthor(player.getName());
-        meta.setPages(pages);
-        book.setItemMeta(meta);
-        editingQuest.put(player.getUniqueId(), questFile);
-        player.openBook(book);
+    /**
+     * Read and lay out the quest off the server thread, then open it as a book. Quests longer than
+     * one book open as a series of books, each following once the previous one is closed.
+     */
+    public void openEditor(Player player, Path questFile) {
+        fileExecutor.submit(player, null, -1, () -> QuestBook.of(questFile, readQuestContent(questFile)), book -> {
+            session(player.getUniqueId()).editingBook = book;
+            if (book.hasMoreThanOneBook()) {
+                player.sendMessage(ChatColor.YELLOW + "This quest spans several books; close each one to open the next.");
+            }
+            openBook(player, book);
+        }, "Failed to read quest file: ");
     }
 
-    public void updateQuestFromBook(UUID playerId, BookMeta newMeta) throws IOException {
-        Path questFile = editingQuest.remove(playerId);
-        if (questFile == null) {
+    /**
+     * Take the edited pages of the open book. After the last book the quest is validated and
+     * saved off the server thread: an unchanged quest is not written and invalid YAML is rejected,
+     * leaving the file as it was.
+     */
+    public void updateQuestFromBook(Player player, BookMeta newMeta) {
+        GuiSession session = find(player.getUniqueId());
+        QuestBook book = session != null ? session.editingBook : null;
+        if (book == null) {
             return;
         }
-        List<String> pages = newMeta.getPages();
-        String content = String.join("\n", pages).stripTrailing() + "\n";
-        Files.writeString(questFile, content, StandardCharsets.UTF_8);
+        if (book.replaceCurrentAndAdvance(newMeta.getPages())) {
+            // The client closes the edited book after this event.
+            plugin.getTaskScheduler().runForEntity(player, () -> openBook(player, book));
+            return;
+        }
+        session.editingBook = null;
+        Path questFile = book.questFile;
+        String content = book.content();
+        fileExecutor.submit(player, null, -1, () -> {
+            if (QuestBook.hash(content).equals(book.originalHash)) {
+                return false;
+            }
+            try {
+                new YamlConfiguration().loadFromString(content);
+            } catch (InvalidConfigurationException e) {
+                throw new IOException("invalid YAML, the file was left unchanged: " + e.getMessage(), e);
+            }
+            // The book replaces the whole file, including task edits not written yet.
+            questModels.invalidate(questFile);
+            history.write(questFile, content, "book edit");
+            catalog.refresh(questFile);
+            return true;
+        }, saved -> player.sendMessage(saved
+                        ? ChatColor.GREEN + "Quest saved: " + questFile.getFileName()
+                        : ChatColor.YELLOW + "No changes to " + questFile.getFileName() + "."),
+                "Quest not saved: ");
     }
 
     public void beginChatInput(UUID playerId, ChatAction action, Path questFile) {
-        pendingChatInputs.put(playerId, new PendingChatInput(action, questFile, null, selectedGuild.get(playerId)));
+        beginTaskChatInput(playerId, action, questFile, null);
     }
 
+    /**
+     * Wait for the player's next chat line; the prompt expires after the chat input timeout.
+     */
     public void beginTaskChatInput(UUID playerId, ChatAction action, Path questFile, String taskKey) {
-        pendingChatInputs.put(playerId, new PendingChatInput(action, questFile, taskKey, selectedGuild.get(playerId)));
+        GuiSession session = session(playerId);
+        PendingChatInput input = new PendingChatInput(action, questFile, taskKey, session.selectedGuild);
+        PendingChatInput previous = session.pendingChatInput.getAndSet(input);
+        if (previous != null) {
+            chatInputTimeouts.cancel(new ChatPrompt(playerId, previous));
+        }
+        chatInputTimeouts.schedule(new ChatPrompt(playerId, input), chatInputTimeoutSeconds);
     }
 
     public PendingChatInput consumeChatInput(UUID playerId) {
-        return pendingChatInputs.remove(playerId);
+        GuiSession session = find(playerId);
+        PendingChatInput input = session != null ? session.pendingChatInput.getAndSet(null) : null;
+        if (input != null) {
+            chatInputTimeouts.cancel(new ChatPrompt(playerId, input));
+        }
+        return input;
+    }
+
+    public int getCurrentPage(UUID playerId) {
+        GuiSession session = find(playerId);
+        return session != null ? session.questPage : 0;
     }
 
-    public Path getSelectedQuest(UUID playerId) {
-        return selectedQuest.get(playerId);
+    public int getCurrentGuildPage(UUID playerId) {
+        GuiSession session = find(playerId);
+        return session != null ? session.guildPage : 0;
     }
 
-    public Map<Integer, String> getGuildMenuSlots(UUID playerId) {
-        return guildMenuSlots.getOrDefault(playerId, Collections.emptyMap());
+    public String getSelectedGuild(UUID playerId) {
+        GuiSession session = find(playerId);
+        return session != null ? session.selectedGuild : null;
     }
 
-    public Map<Integer, Path> getGuildQuestMenuSlots(UUID playerId) {
-        return guildQuestMenuSlots.getOrDefault(playerId, Collections.emptyMap());
+    public Path getQuestsDirectory() {
+        return questsDirectory;
     }
 
-    public Map<Integer, String> getTaskMenuSlots(UUID playerId) {
-        return taskMenuSlots.getOrDefault(playerId, Collections.emptyMap());
+    /**
+     * Tell the catalog about quest files the GUI created, moved or deleted, so the next menu shows
+     * them without waiting for the file watcher.
+     */
+    public void questFilesChanged(Path... questFiles) {
+        for (Path questFile : questFiles) {
+            questModels.invalidate(questFile);
+            catalog.refresh(questFile);
+        }
     }
 
-    public Map<Integer, String> getTaskActionMenuSlots(UUID playerId) {
-        return taskActionMenuSlots.getOrDefault(playerId, Collections.emptyMap());
+    /**
+     * Write a new quest file. Like the other file operations below, this blocks on disk, is
+     * journaled in the quest history and refreshes the catalog; only call from a
+     * {@link QuestFileExecutor} task.
+     */
+    public void createQuestFile(Path questFile, String content) throws IOException {
+        Files.createDirectories(questFile.getParent());
+        history.write(questFile, content, "created");
+        questFilesChanged(questFile);
     }
 
-    public String getSelectedTask(UUID playerId) {
-        return selectedTask.get(playerId);
+    public void moveQuestFile(Path from, Path to) throws IOException {
+        questModels.flush(from);
+        history.move(from, to);
+        questFilesChanged(from, to);
     }
 
-    public int getCurrentPage(UUID playerId) {
-        return currentQuestPage.getOrDefault(playerId, 0);
+    public void copyQuestFile(Path from, Path to) throws IOException {
+        questModels.flush(from);
+        history.copy(from, to);
+        questFilesChanged(to);
     }
 
-    public int getCurrentGuildPage(UUID playerId) {
-        return currentGuildPage.getOrDefault(playerId, 0);
+    /**
+     * Delete the quest; pending task edits are journaled first, so they can be restored with it.
+     */
+    public void deleteQuestFile(Path questFile) throws IOException {
+        questModels.flush(questFile);
+        history.delete(questFile);
+        questFilesChanged(questFile);
     }
 
-    public String getSelectedGuild(UUID playerId) {
-        return selectedGuild.get(playerId);
+    public void reloadQuestFiles() {
+        catalog.requestRescan();
     }
 
-    public Path getQuestsDirectory() {
-        return questsDirectory;
+    public QuestFileExecutor getFileExecutor() {
+        return fileExecutor;
+    }
+
+    /**
+     * Blocks on disk; only call from a {@link QuestFileExecutor} task.
+     */
+    QuestModelCache.QuestModel loadQuestModel(Path questFile) {
+        return questModels.get(questFile);
+    }
+
+    public void shutdown() {
+        fileExecutor.shutdown();
+        bulkEditor.shutdown();
+        linter.close();
+        questModels.close();
+        catalog.close();
+        searchIndex.close();
     }
 
     public PotionConsumeAddon getPlugin() {
         return plugin;
     }
 
-    public void clearSelections(UUID playerId) {
-        selectedQuest.remove(playerId);
-        selectedGuild.remove(playerId);
-        taskMenuSlots.remove(playerId);
-        taskActionMenuSlots.remove(playerId);
-        selectedTask.remove(playerId);
+    /**
+     * Forget everything about the player, e.g. when they quit.
+     */
+    public void endSession(UUID playerId) {
+        sessions.remove(playerId);
+    }
+
+    private GuiSession session(UUID playerId) {
+        GuiSession session = sessions.computeIfAbsent(playerId, id -> new GuiSession());
+        session.touch();
+        return session;
+    }
+
+    private GuiSession find(UUID playerId) {
+        GuiSession session = sessions.get(playerId);
+        if (session != null) {
+            session.touch();
+        }
+        return session;
+    }
+
+    private void expireChatInputs() {
+        for (ChatPrompt prompt : chatInputTimeouts.advance()) {
+            GuiSession session = sessions.get(prompt.playerId());
+            if (session == null || !session.pendingChatInput.compareAndSet(prompt.input(), null)) {
+                continue;
+            }
+            Player player = Bukkit.getPlayer(prompt.playerId());
+            if (player != null) {
+                plugin.getTaskScheduler().runForEntity(player,
+                        () -> player.sendMessage(ChatColor.YELLOW + "Input timed out; the action was cancelled."));
+            }
+        }
+    }
+
+    private void evictIdleSessions() {
+        sessions.values().removeIf(session -> session.idleLongerThan(sessionIdleNanos));
     }
 
     private void ensureQuestsDirectory() {
@@ -407,34 +929,17 @@ public class QuestGuiManager {
         }
     }
 
-    private List<Path> listQuestFiles() {
-        if (!Files.exists(questsDirectory)) {
-            return Collections.emptyList();
-        }
-        try (Stream<Path> stream = Files.walk(questsDirectory, 3)) {
-            return stream
-                    .filter(path -> !Files.isDirectory(path))
-                    .filter(path -> path.getFileName().toString().endsWith(".yml")
-                            || path.getFileName().toString().endsWith(".yaml"))
-                    .sorted(Comparator.comparing(path -> path.getFileName().toString().toLowerCase(Locale.ENGLISH)))
-                    .collect(Collectors.toList());
-        } catch (IOException e) {
-            plugin.getLogger().warning("Unable to list quest files: " + e.getMessage());
-            return Collections.emptyList();
+    private static Map<Integer, String> taskActionSlots() {
+        Map<Integer, String> slots = new HashMap<>();
+        for (int slot = 0; slot < Math.min(45, TASK_ACTIONS.size()); slot++) {
+            slots.put(slot, TASK_ACTIONS.get(slot));
         }
-    }
-
-    private ItemStack createMenuItem(Material material, String name, List<String> lore) {
-        ItemStack item = new ItemStack(material);
-        ItemMeta meta = item.getItemMeta();
-        meta.setDisplayName(name);
-        meta.setLore(lore);
-        item.setItemMeta(meta);
-        return item;
+        return Map.copyOf(slots);
     }
 
     private String readQuestContent(Path questFile) {
         try {
+            questModels.flush(questFile);
             if (Files.exists(questFile)) {
                 return Files.readString(questFile, StandardCharsets.UTF_8);
             }
@@ -444,35 +949,41 @@ public class QuestGuiManager {
         return "";
     }
 
-    private List<String> splitIntoPages(String content, int maxLength) {
-        if (content.isEmpty()) {
-            return Collections.singletonList("");
-        }
-        List<String> pages = new ArrayList<>();
-        String remaining = content;
-        while (!remaining.isEmpty()) {
-            int end = Math.min(maxLength, remaining.length());
-            pages.add(remaining.substring(0, end));
-            remaining = remaining.substring(end);
+    /**
+     * @return the log file, or {@code null} if it could not be written
+     */
+    private Path writeLintLog(String scope, QuestLinter.Report report) {
+        Instant now = Instant.now();
+        List<String> lines = new ArrayList<>();
+        lines.add("Quest lint of " + scope + " at " + DATE_FORMATTER.format(now) + ": " + report.files()
+                + " quests, " + report.issues().size() + " issues in " + report.filesWithIssues() + " files");
+        for (QuestLinter.Issue issue : report.issues()) {
+            lines.add(questsDirectory.relativize(issue.file())
+                    + (issue.task() != null ? " [" + issue.task() + "]" : "") + ": " + issue.message());
         }
-        return pages;
-    }
-
-    private String readFileSize(Path questFile) {
         try {
-            return Files.size(questFile) + " bytes";
+            Path directory = plugin.getDataFolder().toPath().resolve("lint");
+            Files.createDirectories(directory);
+            Path logFile = directory.resolve("lint-" + LINT_LOG_FORMATTER.format(now) + ".log");
+            Files.write(logFile, lines, StandardCharsets.UTF_8);
+            return logFile;
         } catch (IOException e) {
-            return "Unknown";
+            plugin.getLogger().warning("Unable to write quest lint log: " + e.getMessage());
+            return null;
         }
     }
 
-    private String readLastModified(Path questFile) {
-        try {
-            Instant modified = Files.getLastModifiedTime(questFile).toInstant();
-            return DATE_FORMATTER.format(modified);
-        } catch (IOException e) {
-            return "Unknown";
-        }
+    private static void openBook(Player player, QuestBook book) {
+        ItemStack item = new ItemStack(Material.WRITABLE_BOOK);
+        BookMeta meta = (BookMeta) item.getItemMeta();
+        meta.setTitle(book.currentTitle());
+        meta.setAuthor(player.getName());
+        meta.setPages(book.currentPages());
+        item.setItemMeta(meta);
+        player.openBook(item);
+    }
+
+    private record ChatPrompt(UUID playerId, PendingChatInput input) {
     }
 
     public static class PendingChatInput {
@@ -510,7 +1021,11 @@ public class QuestGuiManager {
         RENAME,
         DUPLICATE,
         SET_TASK_ACTION,
-        SET_TASK_AMOUNT
+        SET_TASK_AMOUNT,
+        SEARCH,
+        BULK_FILTER,
+        BULK_AMOUNT,
+        BULK_ACTION
     }
 
     public enum QuestDifficulty {
@@ -543,16 +1058,6 @@ public class QuestGuiManager {
         }
     }
 
-    private Map<String, List<Path>> groupQuestsByGuild() {
-        List<Path> quests = listQuestFiles();
-        Map<String, List<Path>> grouped = new HashMap<>();
-        for (Path quest : quests) {
-            String guild = resolveGuildName(quest);
-            grouped.computeIfAbsent(guild, key -> new ArrayList<>()).add(quest);
-        }
-        return grouped;
-    }
-
     private String resolveGuildName(Path questFile) {
         Path relative = questsDirectory.relativize(questFile);
         if (relative.getNameCount() == 1) {
@@ -586,73 +1091,56 @@ public class QuestGuiManager {
         return resolveGuildName(questFile);
     }
 
-    private List<String> getTaskKeys(Path questFile) {
-        YamlConfiguration config = YamlConfiguration.loadConfiguration(questFile.toFile());
-        ConfigurationSection tasks = config.getConfigurationSection("tasks");
-        if (tasks == null) {
-            return Collections.emptyList();
-        }
-        List<String> keys = new ArrayList<>(tasks.getKeys(false));
-        keys.sort(String.CASE_INSENSITIVE_ORDER);
-        return keys;
-    }
-
     public QuestDifficulty getTaskDifficulty(Path questFile, String taskKey) {
-        YamlConfiguration config = YamlConfiguration.loadConfiguration(questFile.toFile());
-        String value = config.getString("tasks." + taskKey + ".difficulty", QuestDifficulty.EASY.name());
-        try {
-            return QuestDifficulty.valueOf(value.toUpperCase(Locale.ENGLISH));
-        } catch (IllegalArgumentException e) {
-            return QuestDifficulty.EASY;
-        }
+        QuestModelCache.QuestTask task = questModels.get(questFile).task(taskKey);
+        return task != null ? task.difficulty() : QuestDifficulty.EASY;
     }
 
-    public void updateTaskDifficulty(Path questFile, String taskKey, QuestDifficulty difficulty) throws IOException {
-        YamlConfiguration config = YamlConfiguration.loadConfiguration(questFile.toFile());
-        config.set("tasks." + taskKey + ".difficulty", difficulty.name());
-        config.save(questFile.toFile());
+    public void updateTaskDifficulty(Path questFile, String taskKey, QuestDifficulty difficulty) {
+        questModels.update(questFile, taskKey + " difficulty to " + difficulty.name(),
+                config -> config.set("tasks." + taskKey + ".difficulty", difficulty.name()));
     }
 
     public String getTaskAction(Path questFile, String taskKey) {
-        YamlConfiguration config = YamlConfiguration.loadConfiguration(questFile.toFile());
-        return config.getString("tasks." + taskKey + ".task", "CONSUME");
+        QuestModelCache.QuestTask task = questModels.get(questFile).task(taskKey);
+        return task != null ? task.action() : "CONSUME";
     }
 
     public int getTaskAmount(Path questFile, String taskKey) {
-        YamlConfiguration config = YamlConfiguration.loadConfiguration(questFile.toFile());
-        return Math.max(1, config.getInt("tasks." + taskKey + ".args.amount", 1));
+        QuestModelCache.QuestTask task = questModels.get(questFile).task(taskKey);
+        return task != null ? task.amount() : 1;
     }
 
-    public void updateTaskAction(Path questFile, String taskKey, String action) throws IOException {
-        YamlConfiguration config = YamlConfiguration.loadConfiguration(questFile.toFile());
-        config.set("tasks." + taskKey + ".task", action);
-        config.save(questFile.toFile());
+    public void updateTaskAction(Path questFile, String taskKey, String action) {
+        questModels.update(questFile, taskKey + " action to " + action,
+                config -> config.set("tasks." + taskKey + ".task", action));
     }
 
-    public void updateTaskAmount(Path questFile, String taskKey, int amount) throws IOException {
-        YamlConfiguration config = YamlConfiguration.loadConfiguration(questFile.toFile());
-        config.set("tasks." + taskKey + ".args.amount", amount);
-        config.save(questFile.toFile());
+    public void updateTaskAmount(Path questFile, String taskKey, int amount) {
+        questModels.update(questFile, taskKey + " amount to " + amount,
+                config -> config.set("tasks." + taskKey + ".args.amount", amount));
     }
 
-    public String addTask(Path questFile) throws IOException {
-        YamlConfiguration config = YamlConfiguration.loadConfiguration(questFile.toFile());
-        ConfigurationSection tasks = config.getConfigurationSection("tasks");
-        if (tasks == null) {
-            tasks = config.createSection("tasks");
-        }
-        int index = 1;
-        String key = "task_" + index;
-        while (tasks.contains(key)) {
-            index++;
-            key = "task_" + index;
-        }
-        ConfigurationSection newTask = tasks.createSection(key);
-        newTask.set("task", "CONSUME");
-        newTask.set("args.amount", 1);
-        newTask.set("args.types", Collections.singletonList("strength"));
-        newTask.set("difficulty", QuestDifficulty.EASY.name());
-        config.save(questFile.toFile());
-        return key;
+    public String addTask(Path questFile) {
+        String[] added = new String[1];
+        questModels.update(questFile, "added a task", config -> {
+            ConfigurationSection tasks = config.getConfigurationSection("tasks");
+            if (tasks == null) {
+                tasks = config.createSection("tasks");
+            }
+            int index = 1;
+            String key = "task_" + index;
+            while (tasks.contains(key)) {
+                index++;
+                key = "task_" + index;
+            }
+            ConfigurationSection newTask = tasks.createSection(key);
+            newTask.set("task", "CONSUME");
+            newTask.set("args.amount", 1);
+            newTask.set("args.types", Collections.singletonList("strength"));
+            newTask.set("difficulty", QuestDifficulty.EASY.name());
+            added[0] = key;
+        });
+        return added[0];
     }
 }
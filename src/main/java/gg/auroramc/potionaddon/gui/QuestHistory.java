@@ -0,0 +1,450 @@
+package gg.auroramc.potionaddon.gui;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Append-only edit journal of every quest file the GUI writes, for previewing and restoring
+ * earlier versions.
+ *
+ * <p>Each quest has one journal under the plugin's {@code history} folder, mirroring its path
+ * under {@code quest_pools}. A version is stored as the one block of lines that changed since the
+ * previous version, deflated; every {@value #CHECKPOINT_INTERVAL}th version is a full copy, so
+ * rebuilding a version replays at most that many deltas. A restore is journaled as a delta too,
+ * so undoing a one-line edit costs one line. Records are framed with their length and CRC; a
+ * record torn by a crash is cut off the next time the journal is opened.</p>
+ *
+ * <p>All GUI writes go through here: task edits from {@link QuestModelCache}, book saves,
+ * creates, renames, copies, deletes and restores. Before each write the file on disk is compared
+ * with the journal, so the first GUI edit of a quest and edits made outside the GUI are journaled
+ * as versions of their own. Calls for the same quest are serialized; different quests are
+ * journaled in parallel.</p>
+ */
+final class QuestHistory {
+    private static final byte CHECKPOINT = 0;
+    private static final byte DELTA = 1;
+    private static final int CHECKPOINT_INTERVAL = 16;
+    private static final int MAX_TAILS = 64;
+    private static final int MAX_CHANGE_LENGTH = 120;
+    private static final int LOCK_STRIPES = 64;
+
+    private final Path questsDirectory;
+    private final Path historyDirectory;
+    // Striped by path so quests that are renamed or deleted leave nothing behind.
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    // Latest version of recently written quests, so appending does not replay the journal.
+    private final Map<Path, Tail> tails = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, Tail> eldest) {
+            return size() > MAX_TAILS;
+        }
+    };
+
+    QuestHistory(Path questsDirectory, Path historyDirectory) {
+        this.questsDirectory = questsDirectory;
+        this.historyDirectory = historyDirectory;
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Atomically replace the quest's content and journal the new version.
+     *
+     * @param change what was changed, shown in the history menu
+     */
+    void write(Path questFile, String content, String change) throws IOException {
+        synchronized (lock(questFile)) {
+            Tail tail = catchUp(questFile);
+            QuestModelCache.writeAtomically(questFile, content);
+            append(questFile, tail, true, content, change);
+        }
+    }
+
+    void delete(Path questFile) throws IOException {
+        synchronized (lock(questFile)) {
+            Tail tail = catchUp(questFile);
+            Files.deleteIfExists(questFile);
+            append(questFile, tail, false, "", "deleted");
+        }
+    }
+
+    /**
+     * Move the quest; its history moves with it unless the target name already has one.
+     */
+    void move(Path from, Path to) throws IOException {
+        // Both stripes in index order, so concurrent moves cannot deadlock.
+        int a = stripe(from);
+        int b = stripe(to);
+        synchronized (locks[Math.min(a, b)]) {
+            synchronized (locks[Math.max(a, b)]) {
+                Tail tail = catchUp(from);
+                String content = Files.readString(from, StandardCharsets.UTF_8);
+                Path journal = journal(to);
+                if (!Files.exists(journal)) {
+                    Files.move(from, to);
+                    Files.createDirectories(journal.getParent());
+                    Files.move(journal(from), journal);
+                    forget(from);
+                    remember(to, tail);
+                    append(to, tail, true, content, "renamed from " + from.getFileName());
+                    return;
+                }
+                // Catch the target up before the move, or the moved content would be journaled
+                // as an outside change and then again as the rename.
+                Tail toTail = catchUp(to);
+                Files.move(from, to);
+                append(from, tail, false, "", "renamed to " + to.getFileName());
+                append(to, toTail, true, content, "renamed from " + from.getFileName());
+            }
+        }
+    }
+
+    void copy(Path from, Path to) throws IOException {
+        synchronized (lock(to)) {
+            Tail tail = catchUp(to);
+            Files.copy(from, to);
+            append(to, tail, true, Files.readString(to, StandardCharsets.UTF_8), "copied from " + from.getFileName());
+        }
+    }
+
+    /**
+     * @return every journaled version of the quest, oldest first; empty if it has none
+     */
+    List<Version> versions(Path questFile) throws IOException {
+        synchronized (lock(questFile)) {
+            List<Version> versions = new ArrayList<>();
+            List<String> lines = Collections.emptyList();
+            for (Record record : read(questFile)) {
+                List<String> next = record.apply(lines);
+                Hunk hunk = record.kind == DELTA ? record.hunk : Hunk.between(lines, next);
+                versions.add(new Version(versions.size(), record.time, record.change, record.present,
+                        hunk.inserted.size(), hunk.deleted));
+                lines = next;
+            }
+            return versions;
+        }
+    }
+
+    /**
+     * @return the quest's content at the version, rebuilt from the last full copy before it
+     */
+    String content(Path questFile, int version) throws IOException {
+        synchronized (lock(questFile)) {
+            return String.join("\n", rebuild(read(questFile), version));
+        }
+    }
+
+    /**
+     * Write the version back over the quest; the restore is journaled as a new version.
+     *
+     * @throws IOException if the version is a deletion or does not exist
+     */
+    void restore(Path questFile, int version) throws IOException {
+        synchronized (lock(questFile)) {
+            List<Record> records = read(questFile);
+            if (version < 0 || version >= records.size()) {
+                throw new IOException("version " + (version + 1) + " no longer exists");
+            }
+            if (!records.get(version).present) {
+                throw new IOException("version " + (version + 1) + " is a deletion; pick the one before it");
+            }
+            String content = String.join("\n", rebuild(records, version));
+            Tail tail = catchUp(questFile);
+            QuestModelCache.writeAtomically(questFile, content);
+            append(questFile, tail, true, content, "restored version " + (version + 1));
+        }
+    }
+
+    private Object lock(Path questFile) {
+        return locks[stripe(questFile)];
+    }
+
+    private static int stripe(Path questFile) {
+        return Math.floorMod(questFile.hashCode(), LOCK_STRIPES);
+    }
+
+    private Path journal(Path questFile) {
+        return historyDirectory.resolve(questsDirectory.relativize(questFile) + ".journal");
+    }
+
+    /**
+     * Journal what is on disk if it is not the latest version, i.e. the quest as it was before its
+     * first GUI edit, or edits made outside the GUI since.
+     */
+    private Tail catchUp(Path questFile) throws IOException {
+        Tail tail = tail(questFile);
+        if (!Files.exists(questFile)) {
+            if (tail.present) {
+                append(questFile, tail, false, "", "deleted outside the GUI");
+            }
+            return tail;
+        }
+        String content = Files.readString(questFile, StandardCharsets.UTF_8);
+        if (tail.versions == 0) {
+            append(questFile, tail, true, content, "before GUI edits");
+        } else if (!tail.present || !String.join("\n", tail.lines).equals(content)) {
+            append(questFile, tail, true, content, "changed outside the GUI");
+        }
+        return tail;
+    }
+
+    private void append(Path questFile, Tail tail, boolean present, String content, String change)
+            throws IOException {
+        List<String> lines = Arrays.asList(content.split("\n", -1));
+        Record record;
+        if (tail.versions == 0 || tail.sinceCheckpoint + 1 >= CHECKPOINT_INTERVAL) {
+            record = new Record(CHECKPOINT, System.currentTimeMillis(), present, change,
+                    new Hunk(0, 0, lines));
+        } else {
+            record = new Record(DELTA, System.currentTimeMillis(), present, change,
+                    Hunk.between(tail.lines, lines));
+        }
+        Path journal = journal(questFile);
+        Files.createDirectories(journal.getParent());
+        Files.write(journal, frame(record), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        tail.lines = lines;
+        tail.present = present;
+        tail.versions++;
+        tail.sinceCheckpoint = record.kind == CHECKPOINT ? 0 : tail.sinceCheckpoint + 1;
+    }
+
+    private Tail tail(Path questFile) throws IOException {
+        synchronized (tails) {
+            Tail tail = tails.get(questFile);
+            if (tail != null) {
+                return tail;
+            }
+        }
+        List<Record> records = read(questFile);
+        Tail tail = new Tail();
+        if (!records.isEmpty()) {
+            tail.lines = rebuild(records, records.size() - 1);
+            tail.present = records.get(records.size() - 1).present;
+            tail.versions = records.size();
+            for (int i = records.size() - 1; i >= 0 && records.get(i).kind == DELTA; i--) {
+                tail.sinceCheckpoint++;
+            }
+        }
+        remember(questFile, tail);
+        return tail;
+    }
+
+    private void remember(Path questFile, Tail tail) {
+        synchronized (tails) {
+            tails.put(questFile, tail);
+        }
+    }
+
+    private void forget(Path questFile) {
+        synchronized (tails) {
+            tails.remove(questFile);
+        }
+    }
+
+    private static List<String> rebuild(List<Record> records, int version) throws IOException {
+        if (version < 0 || version >= records.size()) {
+            throw new IOException("version " + (version + 1) + " no longer exists");
+        }
+        int start = version;
+        while (records.get(start).kind != CHECKPOINT) {
+            start--;
+        }
+        List<String> lines = Collections.emptyList();
+        for (int i = start; i <= version; i++) {
+            lines = records.get(i).apply(lines);
+        }
+        return lines;
+    }
+
+    /**
+     * Read every intact record; a torn record at the end is truncated away.
+     */
+    private List<Record> read(Path questFile) throws IOException {
+        Path journal = journal(questFile);
+        if (!Files.exists(journal)) {
+            return Collections.emptyList();
+        }
+        byte[] bytes = Files.readAllBytes(journal);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        List<Record> records = new ArrayList<>();
+        int valid = 0;
+        while (buffer.remaining() >= Integer.BYTES * 2) {
+            int length = buffer.getInt();
+            int crc = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            CRC32 check = new CRC32();
+            check.update(payload);
+            if ((int) check.getValue() != crc) {
+                break;
+            }
+            records.add(Record.decode(payload));
+            valid = buffer.position();
+        }
+        if (valid < bytes.length) {
+            try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+                channel.truncate(valid);
+            }
+        }
+        return records;
+    }
+
+    private static byte[] frame(Record record) throws IOException {
+        byte[] payload = record.encode();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return ByteBuffer.allocate(Integer.BYTES * 2 + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .array();
+    }
+
+    /**
+     * @param index   zero-based position in the journal
+     * @param present {@code false} if the quest was deleted at this version
+     * @param added   lines added since the previous version
+     * @param removed lines removed since the previous version
+     */
+    record Version(int index, long time, String change, boolean present, int added, int removed) {
+    }
+
+    private static final class Tail {
+        List<String> lines = Collections.emptyList();
+        boolean present;
+        int versions;
+        int sinceCheckpoint;
+    }
+
+    /**
+     * Replace {@code deleted} lines at {@code start} with {@code inserted}.
+     */
+    private record Hunk(int start, int deleted, List<String> inserted) {
+
+        /**
+         * The one block of lines between the common prefix and suffix; GUI edits change a single
+         * line or region, so one block is all most versions need.
+         */
+        static Hunk between(List<String> before, List<String> after) {
+            int prefix = 0;
+            int limit = Math.min(before.size(), after.size());
+            while (prefix < limit && before.get(prefix).equals(after.get(prefix))) {
+                prefix++;
+            }
+            int suffix = 0;
+            while (suffix < limit - prefix
+                    && before.get(before.size() - 1 - suffix).equals(after.get(after.size() - 1 - suffix))) {
+                suffix++;
+            }
+            return new Hunk(prefix, before.size() - prefix - suffix,
+                    List.copyOf(after.subList(prefix, after.size() - suffix)));
+        }
+
+        List<String> apply(List<String> lines) throws IOException {
+            if (start + deleted > lines.size()) {
+                throw new IOException("journal does not match its earlier versions");
+            }
+            List<String> result = new ArrayList<>(lines.size() - deleted + inserted.size());
+            result.addAll(lines.subList(0, start));
+            result.addAll(inserted);
+            result.addAll(lines.subList(start + deleted, lines.size()));
+            return result;
+        }
+    }
+
+    private record Record(byte kind, long time, boolean present, String change, Hunk hunk) {
+
+        List<String> apply(List<String> lines) throws IOException {
+            return kind == CHECKPOINT ? hunk.inserted : hunk.apply(lines);
+        }
+
+        byte[] encode() throws IOException {
+            ByteArrayOutputStream raw = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(raw)) {
+                out.writeByte(kind);
+                out.writeLong(time);
+                out.writeBoolean(present);
+                out.writeUTF(change.length() > MAX_CHANGE_LENGTH ? change.substring(0, MAX_CHANGE_LENGTH) : change);
+                out.writeInt(hunk.start);
+                out.writeInt(hunk.deleted);
+                out.writeInt(hunk.inserted.size());
+                for (String line : hunk.inserted) {
+                    byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+            Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+            try {
+                deflater.setInput(raw.toByteArray());
+                deflater.finish();
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                byte[] chunk = new byte[4096];
+                while (!deflater.finished()) {
+                    compressed.write(chunk, 0, deflater.deflate(chunk));
+                }
+                return compressed.toByteArray();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        static Record decode(byte[] payload) throws IOException {
+            Inflater inflater = new Inflater();
+            ByteArrayOutputStream raw = new ByteArrayOutputStream();
+            try {
+                inflater.setInput(payload);
+                byte[] chunk = new byte[4096];
+                while (!inflater.finished()) {
+                    int read = inflater.inflate(chunk);
+                    if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new EOFException("truncated journal record");
+                    }
+                    raw.write(chunk, 0, read);
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("corrupt journal record", e);
+            } finally {
+                inflater.end();
+            }
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw.toByteArray()))) {
+                byte kind = in.readByte();
+                long time = in.readLong();
+                boolean present = in.readBoolean();
+                String change = in.readUTF();
+                int start = in.readInt();
+                int deleted = in.readInt();
+                int count = in.readInt();
+                List<String> inserted = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    inserted.add(new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8));
+                }
+                return new Record(kind, time, present, change, new Hunk(start, deleted, List.copyOf(inserted)));
+            }
+        }
+    }
+}
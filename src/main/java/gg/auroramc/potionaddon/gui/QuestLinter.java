@@ -0,0 +1,219 @@
+package gg.auroramc.potionaddon.gui;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Checks quest files for mistakes AuroraQuests would only report at reload.
+ *
+ * <p>Files are read and parsed in parallel on the linter's own fork-join pool; each file is
+ * checked on its own, so the pool splits the list into small batches and joins their issues. A
+ * file is flagged for invalid YAML, duplicate task keys, task types the GUI does not know, amounts
+ * that are not whole numbers of at least 1, consume tasks without {@code args.types} and
+ * {@code POTION_CONSUME} types that are not in the server's potion registry.</p>
+ */
+final class QuestLinter {
+    // Small enough that a few slow files do not hold up a whole worker.
+    private static final int FILES_PER_TASK = 16;
+    private static final Comparator<Issue> ORDER = Comparator
+            .comparing((Issue issue) -> issue.file().toString())
+            .thenComparing(issue -> issue.task() != null ? issue.task() : "");
+
+    private final Set<String> taskActions;
+    private final Set<String> potionKeys;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param potionKeys namespaced keys of every potion type, e.g. {@code minecraft:strength}
+     */
+    QuestLinter(Collection<String> taskActions, Set<String> potionKeys) {
+        this.taskActions = Set.copyOf(taskActions);
+        this.potionKeys = Set.copyOf(potionKeys);
+        this.pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("PotionConsumeAddon-QuestLint-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * @return completes on a linter thread with every issue, sorted by file and task
+     */
+    CompletableFuture<Report> lint(List<Path> questFiles) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            List<Issue> issues = new ArrayList<>(new LintTask(questFiles, 0, questFiles.size()).invoke());
+            issues.sort(ORDER);
+            return new Report(questFiles.size(), List.copyOf(issues), System.nanoTime() - start);
+        }, pool);
+    }
+
+    void close() {
+        pool.shutdownNow();
+    }
+
+    private List<Issue> lintFile(Path questFile) {
+        List<Issue> issues = new ArrayList<>();
+        String content;
+        YamlConfiguration config = new YamlConfiguration();
+        try {
+            content = Files.readString(questFile, StandardCharsets.UTF_8);
+            config.loadFromString(content);
+        } catch (IOException e) {
+            issues.add(new Issue(questFile, null, "unreadable: " + e.getMessage()));
+            return issues;
+        } catch (InvalidConfigurationException e) {
+            String message = e.getMessage() != null ? e.getMessage().lines().findFirst().orElse("") : "";
+            issues.add(new Issue(questFile, null, "invalid YAML: " + message));
+            return issues;
+        }
+        for (String key : duplicateTaskKeys(content)) {
+            issues.add(new Issue(questFile, key, "task key is defined more than once; only the last one is used"));
+        }
+        ConfigurationSection tasks = config.getConfigurationSection("tasks");
+        if (tasks == null) {
+            return issues;
+        }
+        for (String key : tasks.getKeys(false)) {
+            ConfigurationSection task = tasks.getConfigurationSection(key);
+            if (task == null) {
+                issues.add(new Issue(questFile, key, "task is not a section"));
+                continue;
+            }
+            String type = task.getString("task");
+            if (type == null) {
+                issues.add(new Issue(questFile, key, "missing task type"));
+            } else if (!taskActions.contains(type.toUpperCase(Locale.ENGLISH))) {
+                issues.add(new Issue(questFile, key, "unknown task type " + type));
+            }
+            if (task.contains("args.amount") && !(task.isInt("args.amount") && task.getInt("args.amount") >= 1)) {
+                issues.add(new Issue(questFile, key,
+                        "amount " + task.get("args.amount") + " is not a whole number of at least 1"));
+            }
+            boolean potionTask = "POTION_CONSUME".equalsIgnoreCase(type);
+            if ((potionTask || "CONSUME".equalsIgnoreCase(type)) && task.getStringList("args.types").isEmpty()) {
+                issues.add(new Issue(questFile, key,
+                        "no args.types; every " + (potionTask ? "potion" : "item") + " counts"));
+            }
+            if (potionTask) {
+                for (String potion : task.getStringList("args.types")) {
+                    if (!potionKeys.contains(namespaced(potion))) {
+                        issues.add(new Issue(questFile, key, "unknown potion type " + potion));
+                    }
+                }
+            }
+        }
+        return issues;
+    }
+
+    /**
+     * Find task keys listed twice under {@code tasks}. The YAML parser keeps only the last one, so
+     * this scans the raw lines: keys at the first indentation inside the {@code tasks:} block.
+     */
+    private static List<String> duplicateTaskKeys(String content) {
+        List<String> duplicates = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        int tasksIndent = -1;
+        int keyIndent = -1;
+        for (String line : content.lines().toList()) {
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            int indent = line.indexOf(trimmed.charAt(0));
+            if (tasksIndent < 0) {
+                if (trimmed.equals("tasks:") && indent == 0) {
+                    tasksIndent = indent;
+                }
+                continue;
+            }
+            if (indent <= tasksIndent) {
+                break;
+            }
+            if (keyIndent < 0) {
+                keyIndent = indent;
+            }
+            int colon = trimmed.indexOf(':');
+            if (indent == keyIndent && colon > 0) {
+                String key = unquote(trimmed.substring(0, colon).strip());
+                if (!seen.add(key) && !duplicates.contains(key)) {
+                    duplicates.add(key);
+                }
+            }
+        }
+        return duplicates;
+    }
+
+    private static String unquote(String key) {
+        if (key.length() >= 2 && (key.startsWith("'") && key.endsWith("'")
+                || key.startsWith("\"") && key.endsWith("\""))) {
+            return key.substring(1, key.length() - 1);
+        }
+        return key;
+    }
+
+    private static String namespaced(String potion) {
+        String key = potion.strip().toLowerCase(Locale.ROOT);
+        return key.indexOf(':') >= 0 ? key : "minecraft:" + key;
+    }
+
+    private final class LintTask extends RecursiveTask<List<Issue>> {
+        private final List<Path> questFiles;
+        private final int from;
+        private final int to;
+
+        LintTask(List<Path> questFiles, int from, int to) {
+            this.questFiles = questFiles;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Issue> compute() {
+            if (to - from <= FILES_PER_TASK) {
+                List<Issue> issues = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    issues.addAll(lintFile(questFiles.get(i)));
+                }
+                return issues;
+            }
+            int middle = (from + to) >>> 1;
+            LintTask left = new LintTask(questFiles, from, middle);
+            left.fork();
+            List<Issue> issues = new LintTask(questFiles, middle, to).compute();
+            issues.addAll(left.join());
+            return issues;
+        }
+    }
+
+    /**
+     * @param task the task key, or {@code null} for problems with the whole file
+     */
+    record Issue(Path file, String task, String message) {
+    }
+
+    record Report(int files, List<Issue> issues, long nanos) {
+
+        long filesWithIssues() {
+            return issues.stream().map(Issue::file).distinct().count();
+        }
+    }
+}
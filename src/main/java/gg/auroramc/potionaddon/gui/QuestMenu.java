@@ -0,0 +1,156 @@
+package gg.auroramc.potionaddon.gui;
+
+import org.bukkit.Bukkit;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Holder of every quest GUI inventory, carrying what the menu shows.
+ *
+ * <p>Click routing checks {@code getHolder(false) instanceof QuestMenu} and switches on the menu
+ * type, so clicks in chests and furnaces are dismissed after one type check and titles are free
+ * to change. Slot maps are filled while the menu renders and only read afterwards.</p>
+ */
+abstract sealed class QuestMenu implements InventoryHolder {
+    private Inventory inventory;
+
+    @Override
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    /**
+     * Create the inventory owned by this holder.
+     */
+    Inventory open(int size, String title) {
+        inventory = Bukkit.createInventory(this, size, title);
+        return inventory;
+    }
+
+    static final class MainMenu extends QuestMenu {
+        final int page;
+        final Map<Integer, String> guildSlots = new HashMap<>();
+
+        MainMenu(int page) {
+            this.page = page;
+        }
+    }
+
+    static final class GuildMenu extends QuestMenu {
+        final String guild;
+        final int page;
+        final Map<Integer, Path> questSlots = new HashMap<>();
+
+        GuildMenu(String guild, int page) {
+            this.guild = guild;
+            this.page = page;
+        }
+    }
+
+    static final class SearchMenu extends QuestMenu {
+        final String query;
+        final List<QuestCatalog.QuestFile> results;
+        final int page;
+        final Map<Integer, Path> questSlots = new HashMap<>();
+
+        SearchMenu(String query, List<QuestCatalog.QuestFile> results, int page) {
+            this.query = query;
+            this.results = results;
+            this.page = page;
+        }
+    }
+
+    /**
+     * Reopened as-is after chat prompts, so the filter and progress are kept across them. Fields
+     * written by the batch are read when the status item is redrawn on the player's thread.
+     */
+    static final class BulkEditMenu extends QuestMenu {
+        final String scope;
+        final List<Path> quests;
+        final QuestMenu previous;
+        final AtomicBoolean running = new AtomicBoolean();
+        final AtomicBoolean statusQueued = new AtomicBoolean();
+        volatile String taskType;
+        volatile QuestBulkEditor.Progress progress;
+        volatile QuestBulkEditor.Result result;
+
+        BulkEditMenu(String scope, List<Path> quests, QuestMenu previous) {
+            this.scope = scope;
+            this.quests = quests;
+            this.previous = previous;
+        }
+    }
+
+    static final class LintMenu extends QuestMenu {
+        final String scope;
+        final QuestLinter.Report report;
+        final int page;
+        final Map<Integer, Path> issueSlots = new HashMap<>();
+
+        LintMenu(String scope, QuestLinter.Report report, int page) {
+            this.scope = scope;
+            this.report = report;
+            this.page = page;
+        }
+    }
+
+    static final class QuestActions extends QuestMenu {
+        final Path questFile;
+
+        QuestActions(Path questFile) {
+            this.questFile = questFile;
+        }
+    }
+
+    static final class TaskMenu extends QuestMenu {
+        final Path questFile;
+        final QuestModelCache.QuestModel model;
+        final int page;
+        final Map<Integer, String> taskSlots = new HashMap<>();
+
+        TaskMenu(Path questFile, QuestModelCache.QuestModel model, int page) {
+            this.questFile = questFile;
+            this.model = model;
+            this.page = page;
+        }
+    }
+
+    static final class TaskActionMenu extends QuestMenu {
+        final Path questFile;
+        final String taskKey;
+        final Map<Integer, String> actionSlots;
+
+        TaskActionMenu(Path questFile, String taskKey, Map<Integer, String> actionSlots) {
+            this.questFile = questFile;
+            this.taskKey = taskKey;
+            this.actionSlots = actionSlots;
+        }
+    }
+
+    static final class HistoryMenu extends QuestMenu {
+        final Path questFile;
+        final List<QuestHistory.Version> versions;
+        final int page;
+        final Map<Integer, QuestHistory.Version> versionSlots = new HashMap<>();
+
+        HistoryMenu(Path questFile, List<QuestHistory.Version> versions, int page) {
+            this.questFile = questFile;
+            this.versions = versions;
+            this.page = page;
+        }
+    }
+
+    static final class DeleteConfirm extends QuestMenu {
+        final Path questFile;
+
+        DeleteConfirm(Path questFile) {
+            this.questFile = questFile;
+        }
+    }
+}
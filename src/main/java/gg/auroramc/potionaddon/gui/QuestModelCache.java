@@ -0,0 +1,367 @@
+package gg.auroramc.potionaddon.gui;
+
+import gg.auroramc.potionaddon.gui.QuestGuiManager.QuestDifficulty;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * Parsed quest files, cached per path and validated against the file's size and modification time.
+ *
+ * <p>A quest is parsed once into an immutable {@link QuestModel}; rendering a menu reads the model
+ * and never re-parses. Changes go through {@link #update}, which applies them to the cached YAML
+ * and rebuilds the model from memory, so the next render is a cache hit too. Files changed outside
+ * the GUI are re-parsed on the next lookup because their size or time differs.</p>
+ *
+ * <p>Updates are written behind: the file is saved once the quest has seen no edit for the write
+ * delay, so cycling a difficulty three times costs one write. Saves go to a temporary file that is
+ * then atomically moved over the quest, so a crash or AuroraQuests reading mid-save never sees a
+ * truncated file; every save is journaled in the {@link QuestHistory}. Until its write lands, a
+ * pending quest is served from memory and wins over outside edits to the same file. Code that
+ * reads or moves the file itself must {@link #flush} first.</p>
+ */
+final class QuestModelCache {
+    private static final int MAX_ENTRIES = 256;
+    private static final int LOCK_STRIPES = 64;
+
+    private final Map<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, Entry> eldest) {
+            // Unsaved edits stay until written; the map shrinks back on later inserts.
+            return size() > MAX_ENTRIES && !eldest.getValue().dirty();
+        }
+    };
+    private final Map<Path, ScheduledFuture<?>> pendingWrites = new HashMap<>();
+    // Held around a whole read-modify-write of one quest; always taken before the cache lock.
+    private final Object[] questLocks = new Object[LOCK_STRIPES];
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "PotionConsumeAddon-QuestWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final long writeDelayMillis;
+    private final QuestHistory history;
+    private final Consumer<Path> onWritten;
+    private final Logger logger;
+
+    /**
+     * @param history   journals every write
+     * @param onWritten told about every quest file once its pending edits are on disk
+     */
+    QuestModelCache(long writeDelayMillis, QuestHistory history, Consumer<Path> onWritten, Logger logger) {
+        this.writeDelayMillis = Math.max(0L, writeDelayMillis);
+        this.history = history;
+        this.onWritten = onWritten;
+        this.logger = logger;
+        for (int i = 0; i < questLocks.length; i++) {
+            questLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * @return the parsed quest; an empty model if the file is missing or unreadable
+     */
+    synchronized QuestModel get(Path questFile) {
+        return entry(questFile).model;
+    }
+
+    /**
+     * Apply a change to the quest's YAML and return the rebuilt model. The file is written once
+     * the quest has been quiet for the write delay.
+     *
+     * @param description what is changed, for the edit history; the latest one names the write
+     */
+    QuestModel update(Path questFile, String description, Consumer<YamlConfiguration> change) {
+        synchronized (lock(questFile)) {
+            synchronized (this) {
+                Entry entry = entry(questFile);
+                change.accept(entry.config);
+                Entry updated = new Entry(entry.config, entry.attributes, parse(questFile, entry.config), true,
+                        description);
+                entries.put(questFile, updated);
+                scheduleWrite(questFile);
+                return updated.model;
+            }
+        }
+    }
+
+    /**
+     * Write the quest's pending edits now, if it has any.
+     */
+    void flush(Path questFile) throws IOException {
+        synchronized (lock(questFile)) {
+            Entry entry;
+            String content;
+            synchronized (this) {
+                ScheduledFuture<?> pending = pendingWrites.remove(questFile);
+                if (pending != null) {
+                    pending.cancel(false);
+                }
+                entry = entries.get(questFile);
+                if (entry == null || !entry.dirty) {
+                    return;
+                }
+                content = entry.config.saveToString();
+            }
+            // Only the quest's own lock is held, so other quests stay readable during the write.
+            history.write(questFile, content, entry.change);
+            BasicFileAttributes attributes = attributes(questFile);
+            synchronized (this) {
+                if (entries.get(questFile) == entry) {
+                    entries.put(questFile, new Entry(entry.config, attributes, entry.model, false, null));
+                }
+            }
+        }
+        onWritten.accept(questFile);
+    }
+
+    /**
+     * Apply a change and write the file now, without the write delay; for bulk edits. The quest's
+     * pending edits are written first, then the file is parsed, changed and saved under the quest's
+     * own lock but outside the cache lock, so many quests can be rewritten in parallel while a GUI
+     * edit to the same quest waits and is applied on top of the result.
+     *
+     * @param description what is changed, for the edit history
+     * @param change      returns whether it changed anything; the file is left alone otherwise
+     * @return whether the file was written
+     * @throws IOException if the file cannot be read, is not valid YAML or cannot be saved
+     */
+    boolean rewrite(Path questFile, String description, Predicate<YamlConfiguration> change) throws IOException {
+        synchronized (lock(questFile)) {
+            flush(questFile);
+            YamlConfiguration config = new YamlConfiguration();
+            try {
+                config.loadFromString(Files.readString(questFile, StandardCharsets.UTF_8));
+            } catch (InvalidConfigurationException e) {
+                throw new IOException("invalid YAML: " + e.getMessage(), e);
+            }
+            if (!change.test(config)) {
+                return false;
+            }
+            history.write(questFile, config.saveToString(), description);
+            QuestModel model = parse(questFile, config);
+            BasicFileAttributes attributes = attributes(questFile);
+            synchronized (this) {
+                entries.put(questFile, new Entry(config, attributes, model, false, null));
+            }
+        }
+        onWritten.accept(questFile);
+        return true;
+    }
+
+    /**
+     * Write every pending quest and stop the writer. Called on disable.
+     */
+    void close() {
+        List<Path> dirty = new ArrayList<>();
+        synchronized (this) {
+            pendingWrites.values().forEach(pending -> pending.cancel(false));
+            pendingWrites.clear();
+            writer.shutdown();
+            entries.forEach((path, entry) -> {
+                if (entry.dirty) {
+                    dirty.add(path);
+                }
+            });
+        }
+        for (Path questFile : dirty) {
+            flushQuietly(questFile);
+        }
+    }
+
+    /**
+     * Forget the quest, dropping any edits not written yet; for files the GUI deletes or
+     * overwrites as a whole.
+     */
+    synchronized void invalidate(Path questFile) {
+        ScheduledFuture<?> pending = pendingWrites.remove(questFile);
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        entries.remove(questFile);
+    }
+
+    /**
+     * Replace the file's content through a temporary file and an atomic move, so readers see
+     * either the old or the new file and never a partial one. The file keeps its permissions and
+     * group.
+     */
+    static void writeAtomically(Path file, String content) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, "." + file.getFileName(), ".tmp");
+        try {
+            copyPermissions(file, temp);
+            Files.writeString(temp, content, StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Temporary files are created owner-only on POSIX; give the replacement the target's mode and
+     * group so the move does not change who can read the quest. No-op where POSIX is unsupported.
+     */
+    private static void copyPermissions(Path file, Path temp) throws IOException {
+        PosixFileAttributeView target = Files.getFileAttributeView(file, PosixFileAttributeView.class);
+        PosixFileAttributeView replacement = Files.getFileAttributeView(temp, PosixFileAttributeView.class);
+        if (target == null || replacement == null || !Files.exists(file)) {
+            return;
+        }
+        PosixFileAttributes attributes = target.readAttributes();
+        replacement.setPermissions(attributes.permissions());
+        try {
+            replacement.setGroup(attributes.group());
+        } catch (IOException e) {
+            // Not a member of the file's group; the mode alone still applies.
+        }
+    }
+
+    private Object lock(Path questFile) {
+        return questLocks[Math.floorMod(questFile.hashCode(), questLocks.length)];
+    }
+
+    private void scheduleWrite(Path questFile) {
+        ScheduledFuture<?> previous = pendingWrites.remove(questFile);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        try {
+            pendingWrites.put(questFile, writer.schedule(() -> flushQuietly(questFile),
+                    writeDelayMillis, TimeUnit.MILLISECONDS));
+        } catch (RejectedExecutionException e) {
+            // Closing: write now rather than lose the edit.
+            flushQuietly(questFile);
+        }
+    }
+
+    private void flushQuietly(Path questFile) {
+        try {
+            flush(questFile);
+        } catch (IOException e) {
+            logger.warning("Unable to save quest file " + questFile.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    private Entry entry(Path questFile) {
+        Entry entry = entries.get(questFile);
+        if (entry != null && entry.dirty) {
+            return entry;
+        }
+        BasicFileAttributes attributes = attributes(questFile);
+        if (entry != null && entry.matches(attributes)) {
+            return entry;
+        }
+        YamlConfiguration config = attributes != null
+                ? YamlConfiguration.loadConfiguration(questFile.toFile())
+                : new YamlConfiguration();
+        entry = new Entry(config, attributes, parse(questFile, config), false, null);
+        entries.put(questFile, entry);
+        return entry;
+    }
+
+    private static BasicFileAttributes attributes(Path questFile) {
+        try {
+            return Files.readAttributes(questFile, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static QuestModel parse(Path questFile, YamlConfiguration config) {
+        ConfigurationSection tasksSection = config.getConfigurationSection("tasks");
+        if (tasksSection == null) {
+            return new QuestModel(questFile, Collections.emptyList());
+        }
+        List<String> keys = new ArrayList<>(tasksSection.getKeys(false));
+        keys.sort(String.CASE_INSENSITIVE_ORDER);
+        List<QuestTask> tasks = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            ConfigurationSection task = tasksSection.getConfigurationSection(key);
+            if (task == null) {
+                tasks.add(new QuestTask(key, "CONSUME", 1, QuestDifficulty.EASY, Collections.emptyMap()));
+                continue;
+            }
+            ConfigurationSection args = task.getConfigurationSection("args");
+            tasks.add(new QuestTask(key,
+                    task.getString("task", "CONSUME"),
+                    Math.max(1, task.getInt("args.amount", 1)),
+                    parseDifficulty(task.getString("difficulty", QuestDifficulty.EASY.name())),
+                    args != null ? Collections.unmodifiableMap(new LinkedHashMap<>(args.getValues(true)))
+                            : Collections.emptyMap()));
+        }
+        return new QuestModel(questFile, List.copyOf(tasks));
+    }
+
+    private static QuestDifficulty parseDifficulty(String value) {
+        try {
+            return QuestDifficulty.valueOf(value.toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            return QuestDifficulty.EASY;
+        }
+    }
+
+    /**
+     * @param change the latest unsaved change, or {@code null} if there is none
+     */
+    private record Entry(YamlConfiguration config, BasicFileAttributes attributes, QuestModel model, boolean dirty,
+                         String change) {
+        boolean matches(BasicFileAttributes current) {
+            if (attributes == null || current == null) {
+                return attributes == current;
+            }
+            return attributes.size() == current.size()
+                    && attributes.lastModifiedTime().equals(current.lastModifiedTime());
+        }
+    }
+
+    /**
+     * The tasks of one quest file, sorted by key.
+     */
+    record QuestModel(Path path, List<QuestTask> tasks) {
+
+        /**
+         * @return the task, or {@code null} if the quest has no task with that key
+         */
+        QuestTask task(String key) {
+            for (QuestTask task : tasks) {
+                if (task.key().equals(key)) {
+                    return task;
+                }
+            }
+            return null;
+        }
+    }
+
+    record QuestTask(String key, String action, int amount, QuestDifficulty difficulty, Map<String, Object> args) {
+    }
+}
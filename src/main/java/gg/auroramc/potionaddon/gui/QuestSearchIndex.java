@@ -0,0 +1,174 @@
+package gg.auroramc.potionaddon.gui;
+
+import org.bukkit.ChatColor;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over the quests under {@code quest_pools} for {@code /questgui search}.
+ *
+ * <p>Each quest is indexed by the words of its file name, its {@code name}, its task keys, task
+ * types and {@code args.types} entries. The {@link QuestCatalog} reports every added, changed or
+ * removed file; those files are parsed on the index's own thread, so the server thread only ever
+ * runs {@link #search}, a few sorted-map range scans.</p>
+ */
+final class QuestSearchIndex implements QuestCatalog.Listener {
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern COLOR_CODE = Pattern.compile("(?i)&[0-9a-fk-orx#]");
+    private static final Comparator<Path> BY_FILE_NAME = Comparator.comparing(
+            path -> path.getFileName().toString().toLowerCase(Locale.ENGLISH));
+
+    // Guarded by this.
+    private final NavigableMap<String, Set<Path>> postings = new TreeMap<>();
+    private final Map<Path, Set<String>> wordsByQuest = new HashMap<>();
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("PotionConsumeAddon-QuestSearch").factory());
+    private final Logger logger;
+
+    QuestSearchIndex(Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public void questFileChanged(QuestCatalog.QuestFile file) {
+        submit(() -> index(file.path()));
+    }
+
+    @Override
+    public void questFileRemoved(Path path) {
+        submit(() -> remove(path));
+    }
+
+    /**
+     * @return quests matching every word of the query, each word as a prefix, sorted by file name
+     */
+    List<Path> search(String query) {
+        Set<String> words = words(query);
+        if (words.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Set<Path> matches = null;
+        synchronized (this) {
+            for (String word : words) {
+                Set<Path> wordMatches = new HashSet<>();
+                for (Set<Path> quests : postings.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+                    wordMatches.addAll(quests);
+                }
+                if (matches == null) {
+                    matches = wordMatches;
+                } else {
+                    matches.retainAll(wordMatches);
+                }
+                if (matches.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+        }
+        List<Path> results = new ArrayList<>(matches);
+        results.sort(BY_FILE_NAME);
+        return results;
+    }
+
+    void close() {
+        indexer.shutdownNow();
+    }
+
+    private void submit(Runnable task) {
+        try {
+            indexer.execute(task);
+        } catch (RejectedExecutionException ignored) {
+            // Closed; nobody searches any more.
+        }
+    }
+
+    private void index(Path questFile) {
+        Set<String> words = new HashSet<>();
+        String fileName = questFile.getFileName().toString();
+        int extension = fileName.lastIndexOf('.');
+        addWords(words, extension > 0 ? fileName.substring(0, extension) : fileName);
+        try {
+            YamlConfiguration config = YamlConfiguration.loadConfiguration(questFile.toFile());
+            String name = config.getString("name");
+            if (name != null) {
+                addWords(words, ChatColor.stripColor(COLOR_CODE.matcher(name).replaceAll("")));
+            }
+            ConfigurationSection tasks = config.getConfigurationSection("tasks");
+            if (tasks != null) {
+                for (String key : tasks.getKeys(false)) {
+                    addWords(words, key);
+                    addWords(words, tasks.getString(key + ".task"));
+                    for (String type : tasks.getStringList(key + ".args.types")) {
+                        addWords(words, type);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warning("Unable to index quest file " + fileName + ": " + e.getMessage());
+        }
+        synchronized (this) {
+            unlink(questFile);
+            wordsByQuest.put(questFile, words);
+            for (String word : words) {
+                postings.computeIfAbsent(word, key -> new HashSet<>()).add(questFile);
+            }
+        }
+    }
+
+    private synchronized void remove(Path path) {
+        List<Path> removed = new ArrayList<>();
+        for (Path known : wordsByQuest.keySet()) {
+            if (known.startsWith(path)) {
+                removed.add(known);
+            }
+        }
+        removed.forEach(this::unlink);
+    }
+
+    private void unlink(Path questFile) {
+        Set<String> previous = wordsByQuest.remove(questFile);
+        if (previous == null) {
+            return;
+        }
+        for (String word : previous) {
+            Set<Path> quests = postings.get(word);
+            if (quests != null && quests.remove(questFile) && quests.isEmpty()) {
+                postings.remove(word);
+            }
+        }
+    }
+
+    private static void addWords(Set<String> words, String text) {
+        words.addAll(words(text));
+    }
+
+    private static Set<String> words(String text) {
+        Set<String> words = new HashSet<>();
+        if (text == null) {
+            return words;
+        }
+        for (String word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,68 @@
+package gg.auroramc.potionaddon.gui;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hashed timer wheel for deadlines of roughly the same length, such as chat prompts.
+ *
+ * <p>Each {@link #advance()} moves the wheel one tick and returns the keys that expired on it, so
+ * a tick only looks at one bucket instead of every pending key. Deadlines longer than a full turn
+ * simply stay in their bucket for more rounds. Scheduling a key again replaces its deadline.</p>
+ */
+final class TimerWheel<K> {
+    private final List<Set<K>> buckets;
+    private final Map<K, Long> deadlines = new HashMap<>();
+    private long tick;
+
+    TimerWheel(int bucketCount) {
+        buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.add(new HashSet<>());
+        }
+    }
+
+    /**
+     * Expire the key after the given number of ticks, at least one.
+     */
+    synchronized void schedule(K key, long ticks) {
+        cancel(key);
+        long due = tick + Math.max(1L, ticks);
+        deadlines.put(key, due);
+        bucket(due).add(key);
+    }
+
+    synchronized void cancel(K key) {
+        Long due = deadlines.remove(key);
+        if (due != null) {
+            bucket(due).remove(key);
+        }
+    }
+
+    /**
+     * @return the keys whose deadline is this tick; they are no longer scheduled
+     */
+    synchronized List<K> advance() {
+        tick++;
+        List<K> expired = new ArrayList<>();
+        Iterator<K> keys = bucket(tick).iterator();
+        while (keys.hasNext()) {
+            K key = keys.next();
+            if (deadlines.get(key) <= tick) {
+                keys.remove();
+                deadlines.remove(key);
+                expired.add(key);
+            }
+        }
+        return expired;
+    }
+
+    private Set<K> bucket(long due) {
+        return buckets.get((int) (due % buckets.size()));
+    }
+}
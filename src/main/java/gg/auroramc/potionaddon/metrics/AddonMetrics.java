@@ -0,0 +1,112 @@
+package gg.auroramc.potionaddon.metrics;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hot-path counters and latency histograms for the consume path and the quest GUI.
+ *
+ * <p>Recording only touches {@link LongAdder}s, so it is safe and cheap from any thread. Timings
+ * are kept in nanoseconds and reported in microseconds.</p>
+ */
+public final class AddonMetrics {
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Histogram objectivesPerEvent = new Histogram();
+    private final LongAdder objectivesProgressed = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicReference<String> lastFailure = new AtomicReference<>();
+
+    public AddonMetrics() {
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new Histogram());
+        }
+    }
+
+    /**
+     * @param startNanos the {@link System#nanoTime()} taken when the operation started
+     */
+    public void recordDuration(Operation operation, long startNanos) {
+        latencies.get(operation).record(System.nanoTime() - startNanos);
+    }
+
+    public void recordObjectivesProgressed(int objectives) {
+        objectivesPerEvent.record(objectives);
+        objectivesProgressed.add(objectives);
+    }
+
+    /**
+     * Count a failure that is otherwise swallowed to keep the console quiet.
+     */
+    public void recordFailure(Throwable failure) {
+        failures.increment();
+        lastFailure.set(failure.toString());
+    }
+
+    public void reset() {
+        latencies.values().forEach(Histogram::reset);
+        objectivesPerEvent.reset();
+        objectivesProgressed.reset();
+        failures.reset();
+        lastFailure.set(null);
+    }
+
+    /**
+     * @return one line per operation with samples, plus the objective and failure counters
+     */
+    public List<String> report() {
+        List<String> lines = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            long count = histogram.count();
+            if (count == 0L) {
+                continue;
+            }
+            lines.add(String.format(Locale.ENGLISH, "%s: n=%d p50=%s p99=%s max=%s",
+                    operation.getDisplayName(), count, micros(histogram.percentile(0.50)),
+                    micros(histogram.percentile(0.99)), micros(histogram.max())));
+        }
+        lines.add(String.format(Locale.ENGLISH, "objectives progressed: %d (p50=%d p99=%d max=%d per event)",
+                objectivesProgressed.sum(), objectivesPerEvent.percentile(0.50),
+                objectivesPerEvent.percentile(0.99), objectivesPerEvent.max()));
+        String last = lastFailure.get();
+        lines.add("failures: " + failures.sum() + (last != null ? " (last: " + last + ")" : ""));
+        return lines;
+    }
+
+    /**
+     * @return the report folded into a single line, for the periodic log
+     */
+    public String summary() {
+        return String.join(" | ", report());
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ENGLISH, "%.1fus", nanos / 1000.0d);
+    }
+
+    public enum Operation {
+        CONSUME("consume"),
+        SPLASH("splash"),
+        LINGERING("lingering"),
+        BATCH_FLUSH("batch flush"),
+        MAIN_MENU("main menu"),
+        GUILD_MENU("guild menu"),
+        TASK_MENU("task menu"),
+        QUEST_SEARCH("quest search");
+
+        private final String displayName;
+
+        Operation(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+}
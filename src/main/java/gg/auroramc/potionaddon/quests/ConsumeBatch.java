@@ -0,0 +1,100 @@
+package gg.auroramc.potionaddon.quests;
+
+import java.util.function.Consumer;
+
+/**
+ * Pending consumption amounts of one player, summed per {@link ConsumeTarget}.
+ *
+ * <p>Entries are keyed by the target's int id in a small open-addressing table, so adding to an
+ * existing entry neither boxes nor allocates.</p>
+ */
+final class ConsumeBatch {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private int[] keys = new int[INITIAL_CAPACITY];
+    private double[] amounts = new double[INITIAL_CAPACITY];
+    private ConsumeTarget[] targets = new ConsumeTarget[INITIAL_CAPACITY];
+    private int size;
+
+    synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    synchronized void add(ConsumeTarget target, double amount) {
+        int id = target.id();
+        int mask = keys.length - 1;
+        int slot = mix(id) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == id) {
+                amounts[slot] += amount;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = id;
+        amounts[slot] = amount;
+        targets[slot] = target;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    /**
+     * Hand every pending amount to the sink and leave the batch empty. A failing entry is reported
+     * to {@code onFailure} and does not prevent the remaining entries from being drained.
+     *
+     * @return the number of entries drained
+     */
+    synchronized int drain(Sink sink, Consumer<Throwable> onFailure) {
+        int drained = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] == 0) {
+                continue;
+            }
+            ConsumeTarget target = targets[slot];
+            double amount = amounts[slot];
+            keys[slot] = 0;
+            targets[slot] = null;
+            amounts[slot] = 0.0d;
+            size--;
+            drained++;
+            try {
+                sink.accept(target, amount);
+            } catch (Throwable t) {
+                onFailure.accept(t);
+            }
+        }
+        return drained;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        double[] oldAmounts = amounts;
+        ConsumeTarget[] oldTargets = targets;
+        keys = new int[oldKeys.length * 2];
+        amounts = new double[oldKeys.length * 2];
+        targets = new ConsumeTarget[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == 0) {
+                continue;
+            }
+            int slot = mix(oldKeys[i]) & mask;
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            amounts[slot] = oldAmounts[i];
+            targets[slot] = oldTargets[i];
+        }
+    }
+
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    interface Sink {
+        void accept(ConsumeTarget target, double amount) throws Throwable;
+    }
+}
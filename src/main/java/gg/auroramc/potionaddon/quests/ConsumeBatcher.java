@@ -0,0 +1,108 @@
+package gg.auroramc.potionaddon.quests;
+
+import gg.auroramc.potionaddon.metrics.AddonMetrics;
+import gg.auroramc.potionaddon.metrics.AddonMetrics.Operation;
+import gg.auroramc.potionaddon.scheduler.TaskScheduler;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Optional tick-coalesced progression of consume objectives.
+ *
+ * <p>In worlds where batching is on, consumption is summed per player and target and applied with
+ * a single {@code progress} call on the next server tick, so a burst of drinks costs one round of
+ * AuroraQuests completion checks instead of one per potion. Pending amounts are flushed before
+ * AuroraQuests handles a player's quit and when the plugin is disabled. Flushes are scheduled on
+ * the player's own thread, which on Folia is the region thread that owns the player.</p>
+ *
+ * <p>Configured by the {@code batching} section: {@code enabled} is the default for every world
+ * and {@code worlds} holds per-world overrides.</p>
+ */
+public final class ConsumeBatcher implements Listener {
+    private final TaskScheduler scheduler;
+    private final QuestBindings bindings;
+    private final AddonMetrics metrics;
+    private final boolean enabledByDefault;
+    private final Map<String, Boolean> worldOverrides;
+    private final Map<UUID, ConsumeBatch> batches = new ConcurrentHashMap<>();
+
+    public ConsumeBatcher(TaskScheduler scheduler, QuestBindings bindings, AddonMetrics metrics,
+                          ConfigurationSection config) {
+        this.scheduler = scheduler;
+        this.bindings = bindings;
+        this.metrics = metrics;
+        this.enabledByDefault = config != null && config.getBoolean("enabled", false);
+        ConfigurationSection worlds = config != null ? config.getConfigurationSection("worlds") : null;
+        if (worlds == null) {
+            this.worldOverrides = Collections.emptyMap();
+        } else {
+            Map<String, Boolean> overrides = new HashMap<>();
+            for (String world : worlds.getKeys(false)) {
+                overrides.put(world, worlds.getBoolean(world));
+            }
+            this.worldOverrides = overrides;
+        }
+    }
+
+    public boolean isBatching(World world) {
+        if (worldOverrides.isEmpty() || world == null) {
+            return enabledByDefault;
+        }
+        return worldOverrides.getOrDefault(world.getName(), enabledByDefault);
+    }
+
+    /**
+     * Queue an amount for the target; the first amount queued for a player schedules that
+     * player's flush on the next tick, on the thread that owns the player.
+     */
+    public void add(Player player, ConsumeTarget target, double amount) {
+        UUID playerId = player.getUniqueId();
+        ConsumeBatch batch = batches.computeIfAbsent(playerId, id -> new ConsumeBatch());
+        if (batch.isEmpty()) {
+            Runnable flush = () -> flush(playerId);
+            scheduler.runForEntity(player, flush, flush);
+        }
+        batch.add(target, amount);
+    }
+
+    public void flush(UUID playerId) {
+        ConsumeBatch batch = batches.get(playerId);
+        if (batch == null || batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        batch.drain((target, amount) -> {
+            // The quest may have been rerolled away since the amount was queued.
+            if (bindings.isStarted(target.objective())) {
+                bindings.progress(target.objective(), amount, target.meta(bindings));
+            }
+        }, metrics::recordFailure);
+        metrics.recordDuration(Operation.BATCH_FLUSH, start);
+    }
+
+    public void flushAll() {
+        for (UUID playerId : batches.keySet()) {
+            flush(playerId);
+        }
+        batches.clear();
+    }
+
+    // Runs before AuroraQuests tears the profile down on quit.
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        UUID playerId = event.getPlayer().getUniqueId();
+        flush(playerId);
+        batches.remove(playerId);
+    }
+}
@@ -0,0 +1,188 @@
+package gg.auroramc.potionaddon.quests;
+
+import gg.auroramc.quests.api.event.QuestCompletedEvent;
+import gg.auroramc.quests.api.event.QuestPoolLevelUpEvent;
+import gg.auroramc.quests.api.event.QuestsLoadedEvent;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-player index of the {@code ConsumeObjective}s a player holds, keyed by the {@code TypeId}
+ * each objective accepts.
+ *
+ * <p>An index is built lazily from the player's AuroraQuests profile the first time it is needed
+ * and is then reused until AuroraQuests reloads its quests, the player completes a quest or levels
+ * up a quest pool, or the player joins or quits. A lookup on the consume path is therefore a
+ * single map read, however many pools, quests and objectives the player has.</p>
+ *
+ * <p>Quests can become active without any of those events, e.g. when a timed pool rerolls or an
+ * unlock requirement is met. AuroraQuests keeps every quest of a pool for the profile's lifetime
+ * and only starts or stops it, so the index covers the objectives of every quest, active or not,
+ * and callers skip targets whose objective is not {@link QuestBindings#isStarted started}.</p>
+ *
+ * <p>Objectives with an empty {@code types} list or a {@code blacklist} mode accept every type
+ * their filters let through. They are appended to every keyed list and are also returned for
+ * types that no objective names explicitly; AuroraQuests' own filters still run inside
+ * {@code progress}. The first lookup of such an unnamed type caches a keyed list for it, so
+ * repeated drinks of the same potion never rebuild targets or metas.</p>
+ *
+ * <p>Lookups run on the thread that owns the player, which on Folia is the player's region thread,
+ * while invalidation may come from any thread. All maps are therefore concurrent.</p>
+ */
+public final class ConsumeObjectiveIndex implements Listener {
+    private final QuestBindings bindings;
+    private final Map<UUID, PlayerIndex> indexes = new ConcurrentHashMap<>();
+    private final AtomicInteger nextTargetId = new AtomicInteger(1);
+
+    public ConsumeObjectiveIndex(QuestBindings bindings) {
+        this.bindings = bindings;
+    }
+
+    /**
+     * @param player the player who consumed something
+     * @param typeId the AuroraQuests {@code TypeId} of the consumed item
+     * @return the consume targets whose objectives may accept the type, including ones of quests
+     *         that are not active; never {@code null}
+     */
+    public List<ConsumeTarget> targetsFor(Player player, Object typeId) throws Throwable {
+        PlayerIndex index = indexes.get(player.getUniqueId());
+        if (index == null) {
+            index = build(player);
+            if (index == null) {
+                // Profile not loaded yet; try again on the next event.
+                return Collections.emptyList();
+            }
+            indexes.put(player.getUniqueId(), index);
+        }
+        List<ConsumeTarget> targets = index.byType.get(typeId);
+        if (targets == null) {
+            if (index.wildcard.isEmpty()) {
+                return Collections.emptyList();
+            }
+            targets = List.copyOf(toTargets(index.wildcard, typeId, index.reusableMeta));
+            index.byType.put(typeId, targets);
+        }
+        return targets;
+    }
+
+    public void invalidate(UUID playerId) {
+        indexes.remove(playerId);
+    }
+
+    public void invalidateAll() {
+        indexes.clear();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuestsLoaded(QuestsLoadedEvent event) {
+        invalidateAll();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuestCompleted(QuestCompletedEvent event) {
+        invalidate(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuestPoolLevelUp(QuestPoolLevelUpEvent event) {
+        invalidate(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        invalidate(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        invalidate(event.getPlayer().getUniqueId());
+    }
+
+    private PlayerIndex build(Player player) throws Throwable {
+        Object profile = bindings.profile(player);
+        if (profile == null) {
+            return null;
+        }
+        Map<Object, List<Object>> byType = new HashMap<>();
+        List<Object> wildcard = new ArrayList<>();
+        Map<Object, Boolean> reusableMeta = new IdentityHashMap<>();
+        Collection<?> pools = bindings.questPools(profile);
+        if (pools != null) {
+            for (Object pool : pools) {
+                Collection<?> quests = bindings.quests(pool);
+                if (quests == null) continue;
+                for (Object quest : quests) {
+                    List<?> objectives = bindings.objectives(quest);
+                    if (objectives == null) continue;
+                    for (Object objective : objectives) {
+                        if (bindings.isConsumeObjective(objective)) {
+                            addObjective(objective, byType, wildcard);
+                            reusableMeta.put(objective, bindings.isMetaReusable(objective));
+                        }
+                    }
+                }
+            }
+        }
+
+        Map<Object, List<ConsumeTarget>> targets = new ConcurrentHashMap<>(byType.size() * 2);
+        for (Map.Entry<Object, List<Object>> entry : byType.entrySet()) {
+            List<Object> objectives = entry.getValue();
+            objectives.addAll(wildcard);
+            targets.put(entry.getKey(), List.copyOf(toTargets(objectives, entry.getKey(), reusableMeta)));
+        }
+        return new PlayerIndex(targets, List.copyOf(wildcard), reusableMeta);
+    }
+
+    private List<ConsumeTarget> toTargets(List<Object> objectives, Object typeId, Map<Object, Boolean> reusableMeta)
+            throws Throwable {
+        List<ConsumeTarget> targets = new ArrayList<>(objectives.size());
+        for (Object objective : objectives) {
+            Object meta = Boolean.TRUE.equals(reusableMeta.get(objective)) ? bindings.meta(objective, typeId) : null;
+            targets.add(new ConsumeTarget(nextTargetId(), objective, typeId, meta));
+        }
+        return targets;
+    }
+
+    private int nextTargetId() {
+        // Zero marks an empty slot in ConsumeBatch, so ids wrap back to one.
+        return nextTargetId.getAndUpdate(id -> id == Integer.MAX_VALUE ? 1 : id + 1);
+    }
+
+    private void addObjective(Object objective, Map<Object, List<Object>> byType, List<Object> wildcard)
+            throws Throwable {
+        ConfigurationSection args = bindings.objectiveArgs(objective);
+        List<String> types = args != null ? args.getStringList("types") : Collections.emptyList();
+        boolean blacklist = args != null && "blacklist".equalsIgnoreCase(args.getString("mode", "whitelist"));
+        if (types.isEmpty() || blacklist) {
+            wildcard.add(objective);
+            return;
+        }
+        for (String type : types) {
+            List<Object> objectives = byType.computeIfAbsent(bindings.parseTypeId(type), key -> new ArrayList<>());
+            // The same type listed twice must not progress the objective twice.
+            if (objectives.isEmpty() || objectives.get(objectives.size() - 1) != objective) {
+                objectives.add(objective);
+            }
+        }
+    }
+
+    private record PlayerIndex(Map<Object, List<ConsumeTarget>> byType, List<Object> wildcard,
+                               Map<Object, Boolean> reusableMeta) {
+    }
+}
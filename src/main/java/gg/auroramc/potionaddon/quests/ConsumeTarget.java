@@ -0,0 +1,44 @@
+package gg.auroramc.potionaddon.quests;
+
+/**
+ * One consume objective paired with the {@code TypeId} it is progressed with.
+ *
+ * <p>When AuroraQuests allows it (see {@link QuestBindings#isMetaReusable(Object)}) the
+ * {@code ObjectiveMeta} is built once when the index is built and shared by every later event.</p>
+ */
+public final class ConsumeTarget {
+    private final int id;
+    private final Object objective;
+    private final Object typeId;
+    private final Object cachedMeta;
+
+    ConsumeTarget(int id, Object objective, Object typeId, Object cachedMeta) {
+        this.id = id;
+        this.objective = objective;
+        this.typeId = typeId;
+        this.cachedMeta = cachedMeta;
+    }
+
+    /**
+     * @return a positive id, unique among all targets built by the same index
+     */
+    public int id() {
+        return id;
+    }
+
+    public Object objective() {
+        return objective;
+    }
+
+    public Object typeId() {
+        return typeId;
+    }
+
+    /**
+     * @return the cached meta, or a freshly built one if the objective's filters depend on location
+     */
+    public Object meta(QuestBindings bindings) throws Throwable {
+        Object meta = cachedMeta;
+        return meta != null ? meta : bindings.meta(objective, typeId);
+    }
+}
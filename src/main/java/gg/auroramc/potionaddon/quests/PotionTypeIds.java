@@ -0,0 +1,67 @@
+package gg.auroramc.potionaddon.quests;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.Registry;
+import org.bukkit.potion.PotionType;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * AuroraQuests {@code TypeId}s for every quest-relevant {@link PotionType}, built once from the
+ * server's potion registry.
+ *
+ * <p>Each id keeps the namespace of the registry key rather than assuming {@code minecraft}.
+ * Base potions that carry no effect (water, mundane, thick, awkward) are left out, so a
+ * {@code null} lookup means the potion should not count.</p>
+ */
+public final class PotionTypeIds {
+    private final Map<PotionType, Object> typeIds = new EnumMap<>(PotionType.class);
+
+    private PotionTypeIds() {
+    }
+
+    public static PotionTypeIds build(QuestBindings bindings) throws Throwable {
+        return build(bindings::typeId);
+    }
+
+    /**
+     * Build the table with the given {@code TypeId} constructor; the CONSUME bridge goes through
+     * its bound handle, the native objective calls {@code TypeId}'s constructor directly.
+     */
+    public static <E extends Throwable> PotionTypeIds build(IdFactory<E> factory) throws E {
+        PotionTypeIds table = new PotionTypeIds();
+        for (PotionType type : Registry.POTION) {
+            if (!isQuestPotion(type)) {
+                continue;
+            }
+            NamespacedKey key = type.getKey();
+            table.typeIds.put(type, factory.create(key.getNamespace(), key.getKey()));
+        }
+        return table;
+    }
+
+    /**
+     * @return the shared {@code TypeId} for the potion type, or {@code null} if it is not a quest potion
+     */
+    public Object get(PotionType type) {
+        return typeIds.get(type);
+    }
+
+    public int size() {
+        return typeIds.size();
+    }
+
+    /**
+     * @return whether the potion carries an effect and should count towards consume objectives
+     */
+    private static boolean isQuestPotion(PotionType type) {
+        return type != PotionType.WATER && type != PotionType.MUNDANE
+                && type != PotionType.THICK && type != PotionType.AWKWARD;
+    }
+
+    @FunctionalInterface
+    public interface IdFactory<E extends Throwable> {
+        Object create(String namespace, String key) throws E;
+    }
+}
@@ -0,0 +1,241 @@
+package gg.auroramc.potionaddon.quests;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Pre-resolved {@link MethodHandle}s into AuroraQuests and Aurora.
+ *
+ * <p>All class and member lookups happen once in {@link #bind()}. The handles are adapted to
+ * {@code Object}-typed signatures so that the per-event accessors can use
+ * {@link MethodHandle#invokeExact} without any further lookups, boxing or access checks.</p>
+ */
+public final class QuestBindings {
+    private static final String QUESTS_PLUGIN = "gg.auroramc.quests.api.AuroraQuestsPlugin";
+    private static final String PROFILE_MANAGER = "gg.auroramc.quests.api.profile.ProfileManager";
+    private static final String PROFILE = "gg.auroramc.quests.api.profile.Profile";
+    private static final String QUEST_POOL = "gg.auroramc.quests.api.questpool.QuestPool";
+    private static final String QUEST = "gg.auroramc.quests.api.quest.Quest";
+    private static final String OBJECTIVE = "gg.auroramc.quests.api.objective.Objective";
+    private static final String TYPED_OBJECTIVE = "gg.auroramc.quests.api.objective.TypedObjective";
+    private static final String OBJECTIVE_DEFINITION = "gg.auroramc.quests.api.objective.ObjectiveDefinition";
+    private static final String OBJECTIVE_META = "gg.auroramc.quests.api.objective.ObjectiveMeta";
+    private static final String CONSUME_OBJECTIVE = "gg.auroramc.quests.objective.ConsumeObjective";
+    private static final String TYPE_FILTER = "gg.auroramc.quests.api.objective.filter.TypeFilter";
+    private static final String TYPE_ID = "gg.auroramc.aurora.api.item.TypeId";
+
+    private final MethodHandle inst;
+    private final MethodHandle getProfileManager;
+    private final MethodHandle getProfile;
+    private final MethodHandle getQuestPools;
+    private final MethodHandle getQuests;
+    private final MethodHandle getObjectives;
+    private final MethodHandle getDefinition;
+    private final MethodHandle getArgs;
+    private final MethodHandle getFilters;
+    private final MethodHandle isStarted;
+    private final MethodHandle meta;
+    private final MethodHandle progress;
+    private final MethodHandle newTypeId;
+    private final MethodHandle parseTypeId;
+    private final Class<?> consumeObjectiveClass;
+    private final Class<?> typeFilterClass;
+
+    private QuestBindings(MethodHandle inst, MethodHandle getProfileManager, MethodHandle getProfile,
+                          MethodHandle getQuestPools, MethodHandle getQuests, MethodHandle getObjectives,
+                          MethodHandle getDefinition, MethodHandle getArgs, MethodHandle getFilters,
+                          MethodHandle isStarted, MethodHandle meta, MethodHandle progress, MethodHandle newTypeId,
+                          MethodHandle parseTypeId, Class<?> consumeObjectiveClass, Class<?> typeFilterClass) {
+        this.inst = inst;
+        this.getProfileManager = getProfileManager;
+        this.getProfile = getProfile;
+        this.getQuestPools = getQuestPools;
+        this.getQuests = getQuests;
+        this.getObjectives = getObjectives;
+        this.getDefinition = getDefinition;
+        this.getArgs = getArgs;
+        this.getFilters = getFilters;
+        this.isStarted = isStarted;
+        this.meta = meta;
+        this.progress = progress;
+        this.newTypeId = newTypeId;
+        this.parseTypeId = parseTypeId;
+        this.consumeObjectiveClass = consumeObjectiveClass;
+        this.typeFilterClass = typeFilterClass;
+    }
+
+    /**
+     * Resolve every AuroraQuests member used on the consume path.
+     *
+     * @return the bound handles
+     * @throws ReflectiveOperationException if a class or member is missing from the installed version
+     */
+    public static QuestBindings bind() throws ReflectiveOperationException {
+        ClassLoader loader = QuestBindings.class.getClassLoader();
+        Class<?> questsClass = Class.forName(QUESTS_PLUGIN, false, loader);
+        Class<?> profileManagerClass = Class.forName(PROFILE_MANAGER, false, loader);
+        Class<?> profileClass = Class.forName(PROFILE, false, loader);
+        Class<?> questPoolClass = Class.forName(QUEST_POOL, false, loader);
+        Class<?> questClass = Class.forName(QUEST, false, loader);
+        Class<?> objectiveClass = Class.forName(OBJECTIVE, false, loader);
+        Class<?> typedObjectiveClass = Class.forName(TYPED_OBJECTIVE, false, loader);
+        Class<?> objectiveDefinitionClass = Class.forName(OBJECTIVE_DEFINITION, false, loader);
+        Class<?> objectiveMetaClass = Class.forName(OBJECTIVE_META, false, loader);
+        Class<?> consumeObjectiveClass = Class.forName(CONSUME_OBJECTIVE, false, loader);
+        Class<?> typeFilterClass = Class.forName(TYPE_FILTER, false, loader);
+        Class<?> typeIdClass = Class.forName(TYPE_ID, false, loader);
+        // meta(TypeId) is invoked on ConsumeObjectives, so a changed hierarchy would fail on every drink.
+        if (!typedObjectiveClass.isAssignableFrom(consumeObjectiveClass)) {
+            throw new NoSuchMethodException(CONSUME_OBJECTIVE + " no longer extends " + TYPED_OBJECTIVE);
+        }
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+        MethodHandle inst = lookup.findStatic(questsClass, "inst", MethodType.methodType(questsClass))
+                .asType(MethodType.methodType(Object.class));
+        MethodHandle getProfileManager = lookup.findVirtual(questsClass, "getProfileManager",
+                        MethodType.methodType(profileManagerClass))
+                .asType(MethodType.methodType(Object.class, Object.class));
+        MethodHandle getProfile = lookup.findVirtual(profileManagerClass, "getProfile",
+                        MethodType.methodType(profileClass, Player.class))
+                .asType(MethodType.methodType(Object.class, Object.class, Player.class));
+        MethodHandle getQuestPools = lookup.findVirtual(profileClass, "getQuestPools",
+                        MethodType.methodType(Collection.class))
+                .asType(MethodType.methodType(Collection.class, Object.class));
+        MethodHandle getQuests = lookup.findVirtual(questPoolClass, "getQuests",
+                        MethodType.methodType(Collection.class))
+                .asType(MethodType.methodType(Collection.class, Object.class));
+        MethodHandle getObjectives = lookup.findVirtual(questClass, "getObjectives",
+                        MethodType.methodType(List.class))
+                .asType(MethodType.methodType(List.class, Object.class));
+        MethodHandle getDefinition = lookup.findVirtual(objectiveClass, "getDefinition",
+                        MethodType.methodType(objectiveDefinitionClass))
+                .asType(MethodType.methodType(Object.class, Object.class));
+        MethodHandle getArgs = lookup.findVirtual(objectiveDefinitionClass, "getArgs",
+                        MethodType.methodType(ConfigurationSection.class))
+                .asType(MethodType.methodType(ConfigurationSection.class, Object.class));
+        MethodHandle getFilters = lookup.findVirtual(objectiveClass, "getFilters",
+                        MethodType.methodType(List.class))
+                .asType(MethodType.methodType(List.class, Object.class));
+        MethodHandle isStarted = lookup.findVirtual(objectiveClass, "isStarted",
+                        MethodType.methodType(boolean.class))
+                .asType(MethodType.methodType(boolean.class, Object.class));
+
+        // TypedObjective#meta(TypeId) is protected, so it has to be opened once and unreflected.
+        Method metaMethod = typedObjectiveClass.getDeclaredMethod("meta", typeIdClass);
+        metaMethod.setAccessible(true);
+        MethodHandle meta = lookup.unreflect(metaMethod)
+                .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+
+        MethodHandle progress = lookup.findVirtual(objectiveClass, "progress",
+                        MethodType.methodType(void.class, double.class, objectiveMetaClass))
+                .asType(MethodType.methodType(void.class, Object.class, double.class, Object.class));
+        MethodHandle newTypeId = lookup.findConstructor(typeIdClass,
+                        MethodType.methodType(void.class, String.class, String.class))
+                .asType(MethodType.methodType(Object.class, String.class, String.class));
+        MethodHandle parseTypeId = lookup.findStatic(typeIdClass, "fromString",
+                        MethodType.methodType(typeIdClass, String.class))
+                .asType(MethodType.methodType(Object.class, String.class));
+
+        return new QuestBindings(inst, getProfileManager, getProfile, getQuestPools, getQuests,
+                getObjectives, getDefinition, getArgs, getFilters, isStarted, meta, progress, newTypeId,
+                parseTypeId, consumeObjectiveClass, typeFilterClass);
+    }
+
+    public Object profile(Player player) throws Throwable {
+        Object questsPlugin = (Object) inst.invokeExact();
+        if (questsPlugin == null) {
+            return null;
+        }
+        Object profileManager = (Object) getProfileManager.invokeExact(questsPlugin);
+        if (profileManager == null) {
+            return null;
+        }
+        return (Object) getProfile.invokeExact(profileManager, player);
+    }
+
+    public Collection<?> questPools(Object profile) throws Throwable {
+        return (Collection<?>) getQuestPools.invokeExact(profile);
+    }
+
+    /**
+     * @return every quest of the pool, active or not; the set only changes when AuroraQuests
+     *         reloads or the profile is rebuilt
+     */
+    public Collection<?> quests(Object pool) throws Throwable {
+        return (Collection<?>) getQuests.invokeExact(pool);
+    }
+
+    public List<?> objectives(Object quest) throws Throwable {
+        return (List<?>) getObjectives.invokeExact(quest);
+    }
+
+    /**
+     * @return the {@code args} section of the objective's definition, or {@code null} if it has none
+     */
+    public ConfigurationSection objectiveArgs(Object objective) throws Throwable {
+        Object definition = (Object) getDefinition.invokeExact(objective);
+        if (definition == null) {
+            return null;
+        }
+        return (ConfigurationSection) getArgs.invokeExact(definition);
+    }
+
+    /**
+     * Whether an {@code ObjectiveMeta} built for this objective can be reused across events.
+     *
+     * <p>A meta captures the player's location when it is built. That is only harmless when every
+     * filter of the objective looks at the {@code type} variable alone, i.e. all filters are
+     * {@code TypeFilter}s. World, region, biome and similar filters need a fresh meta per event.</p>
+     */
+    public boolean isMetaReusable(Object objective) throws Throwable {
+        List<?> filters = (List<?>) getFilters.invokeExact(objective);
+        if (filters == null) {
+            return true;
+        }
+        for (Object filter : filters) {
+            if (!typeFilterClass.isInstance(filter)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the objective's quest is currently active; rerolled, locked and not yet started quests
+     * keep their objectives, just not started ones.
+     */
+    public boolean isStarted(Object objective) throws Throwable {
+        return (boolean) isStarted.invokeExact(objective);
+    }
+
+    public boolean isConsumeObjective(Object objective) {
+        return consumeObjectiveClass.isInstance(objective);
+    }
+
+    public Object typeId(String namespace, String key) throws Throwable {
+        return (Object) newTypeId.invokeExact(namespace, key);
+    }
+
+    /**
+     * Parse a {@code types} entry exactly like AuroraQuests' own {@code TypeFilter} does.
+     */
+    public Object parseTypeId(String value) throws Throwable {
+        return (Object) parseTypeId.invokeExact(value);
+    }
+
+    public Object meta(Object objective, Object typeId) throws Throwable {
+        return (Object) meta.invokeExact(objective, typeId);
+    }
+
+    public void progress(Object objective, double amount, Object objectiveMeta) throws Throwable {
+        progress.invokeExact(objective, amount, objectiveMeta);
+    }
+}
@@ -0,0 +1,85 @@
+package gg.auroramc.potionaddon.quests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The binding plans this addon knows, keyed by the AuroraQuests version they were written for.
+ *
+ * <p>{@link #select(String)} runs once in {@code onEnable}. It tries the adapter matching the
+ * installed version first and then the others, because a minor release often keeps the members an
+ * older plan needs. Every plan resolves all of its classes and members up front, so an
+ * incompatible AuroraQuests is detected at startup and never on a drink.</p>
+ */
+public enum QuestsAdapter {
+    V2("2.x", "2.", QuestBindings::bind);
+
+    private final String displayName;
+    private final String versionPrefix;
+    private final Binder binder;
+
+    QuestsAdapter(String displayName, String versionPrefix, Binder binder) {
+        this.displayName = displayName;
+        this.versionPrefix = versionPrefix;
+        this.binder = binder;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public boolean supports(String version) {
+        return version != null && version.startsWith(versionPrefix);
+    }
+
+    /**
+     * Bind the first adapter that fits the installed AuroraQuests.
+     *
+     * @param version the version of the installed AuroraQuests plugin, may be {@code null}
+     * @return the adapter and its bound handles
+     * @throws ReflectiveOperationException if no adapter fits; the message names every adapter tried
+     */
+    public static Selection select(String version) throws ReflectiveOperationException {
+        List<QuestsAdapter> candidates = new ArrayList<>();
+        for (QuestsAdapter adapter : values()) {
+            if (adapter.supports(version)) {
+                candidates.add(adapter);
+            }
+        }
+        for (QuestsAdapter adapter : values()) {
+            if (!candidates.contains(adapter)) {
+                candidates.add(adapter);
+            }
+        }
+
+        StringBuilder failures = new StringBuilder();
+        ReflectiveOperationException first = null;
+        for (QuestsAdapter adapter : candidates) {
+            try {
+                return new Selection(adapter, adapter.binder.bind());
+            } catch (ReflectiveOperationException | LinkageError e) {
+                if (failures.length() > 0) {
+                    failures.append("; ");
+                }
+                failures.append(adapter.displayName).append(": ").append(e);
+                if (first == null && e instanceof ReflectiveOperationException reflective) {
+                    first = reflective;
+                }
+            }
+        }
+        ReflectiveOperationException exception = new ReflectiveOperationException(
+                "No adapter fits AuroraQuests " + version + " (" + failures + ")");
+        if (first != null) {
+            exception.addSuppressed(first);
+        }
+        throw exception;
+    }
+
+    public record Selection(QuestsAdapter adapter, QuestBindings bindings) {
+    }
+
+    @FunctionalInterface
+    private interface Binder {
+        QuestBindings bind() throws ReflectiveOperationException;
+    }
+}
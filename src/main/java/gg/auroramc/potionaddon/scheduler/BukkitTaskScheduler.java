@@ -0,0 +1,37 @@
+package gg.auroramc.potionaddon.scheduler;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+final class BukkitTaskScheduler implements TaskScheduler {
+    private final Plugin plugin;
+
+    BukkitTaskScheduler(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void runForEntity(Entity entity, Runnable task, Runnable retired) {
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            // A dead player is not valid but still online; Folia only retires removed entities too.
+            if (entity instanceof Player player ? player.isOnline() : entity.isValid()) {
+                task.run();
+            } else if (retired != null) {
+                retired.run();
+            }
+        });
+    }
+
+    @Override
+    public void runAsyncTimer(Runnable task, long periodSeconds) {
+        long periodTicks = periodSeconds * 20L;
+        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, task, periodTicks, periodTicks);
+    }
+
+    @Override
+    public void cancelAll() {
+        Bukkit.getScheduler().cancelTasks(plugin);
+    }
+}
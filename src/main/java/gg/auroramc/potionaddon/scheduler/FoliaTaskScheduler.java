@@ -0,0 +1,37 @@
+package gg.auroramc.potionaddon.scheduler;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.TimeUnit;
+
+final class FoliaTaskScheduler implements TaskScheduler {
+    private final Plugin plugin;
+
+    FoliaTaskScheduler(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void runForEntity(Entity entity, Runnable task, Runnable retired) {
+        ScheduledTask scheduled = entity.getScheduler().run(plugin, ignored -> task.run(), retired);
+        // A null task means the entity was already retired and the callback will never fire.
+        if (scheduled == null && retired != null) {
+            retired.run();
+        }
+    }
+
+    @Override
+    public void runAsyncTimer(Runnable task, long periodSeconds) {
+        Bukkit.getAsyncScheduler().runAtFixedRate(plugin, ignored -> task.run(), periodSeconds, periodSeconds,
+                TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void cancelAll() {
+        Bukkit.getGlobalRegionScheduler().cancelTasks(plugin);
+        Bukkit.getAsyncScheduler().cancelTasks(plugin);
+    }
+}
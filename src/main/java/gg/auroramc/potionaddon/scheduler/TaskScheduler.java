@@ -0,0 +1,46 @@
+package gg.auroramc.potionaddon.scheduler;
+
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Schedules work on the thread that owns it.
+ *
+ * <p>On Folia entity work runs on the entity's region thread. On Paper and Spigot everything that
+ * is not async runs on the main thread through the Bukkit scheduler.</p>
+ */
+public interface TaskScheduler {
+
+    static TaskScheduler create(Plugin plugin) {
+        return isFolia() ? new FoliaTaskScheduler(plugin) : new BukkitTaskScheduler(plugin);
+    }
+
+    static boolean isFolia() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Run a task on the next tick on the thread that owns the entity.
+     *
+     * @param entity  the entity the task belongs to
+     * @param task    the task to run while the entity is still in the world
+     * @param retired run instead of {@code task} if the entity was removed first; may be {@code null}
+     */
+    void runForEntity(Entity entity, Runnable task, Runnable retired);
+
+    default void runForEntity(Entity entity, Runnable task) {
+        runForEntity(entity, task, null);
+    }
+
+    /**
+     * Run a task off the main thread every {@code periodSeconds}, starting one period from now.
+     */
+    void runAsyncTimer(Runnable task, long periodSeconds);
+
+    void cancelAll();
+}
@@ -0,0 +1,41 @@
+package gg.auroramc.potionaddon.gui;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QuestBookTest {
+    private static final Path QUEST = Path.of("quest.yml");
+
+    @Test
+    void keepsLinesEndingInTheContinuationMarker() {
+        for (String ending : List.of("↩", "↩\\", "↩\\\\", "↩↩")) {
+            // Enough 18-character lines that one of them ends every page.
+            List<String> lines = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                lines.add("key" + String.format("%02d", i) + ": value" + ending);
+            }
+            String content = String.join("\n", lines) + "\n";
+            assertRoundTrip(content);
+        }
+    }
+
+    @Test
+    void keepsLongLinesEndingInTheContinuationMarker() {
+        assertRoundTrip("name: " + "x".repeat(600) + "↩\nnext: 1\n");
+        assertRoundTrip("name: " + "x".repeat(259) + "↩\nnext: 1\n");
+    }
+
+    private static void assertRoundTrip(String content) {
+        QuestBook book = QuestBook.of(QUEST, content);
+        List<List<String>> books = new ArrayList<>();
+        do {
+            books.add(List.copyOf(book.currentPages()));
+        } while (book.replaceCurrentAndAdvance(book.currentPages()));
+        assertEquals(content, book.content(), () -> "pages: " + books);
+    }
+}